@@ -0,0 +1,82 @@
+package com.eprcuen.benchmarks.commons;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.commons.logs.WriteLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CreateUserLoggingBenchmark replays the log statements of one UserServiceImpl.createUser request,
+ * written with WriteLog concatenation and with StructuredLogger.
+ * Events are encoded with the shared pattern into a discarding stream, so enabled levels include formatting.
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar CreateUserLoggingBenchmark -prof gc}
+ * and compare gc.alloc.rate.norm (bytes per request).
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateUserLoggingBenchmark {
+    private static final Logger LEGACY = LoggerFactory.getLogger("benchmark.legacy");
+    private static final StructuredLogger STRUCTURED = StructuredLogger.of(CreateUserLoggingBenchmark.class);
+
+    @Param({"INFO", "WARN"})
+    public String level;
+
+    private Long id = 4_211L;
+
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m %kvp%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        root.setLevel(Level.toLevel(level));
+    }
+
+    @Benchmark
+    public void writeLog() {
+        LEGACY.info(WriteLog.logInfo("--> creating user service"));
+        LEGACY.info(WriteLog.logInfo("--> validating user..."));
+        LEGACY.info(WriteLog.logInfo("--> user created successfully with ID: " + id));
+    }
+
+    @Benchmark
+    public void structuredLogger() {
+        STRUCTURED.info("--> creating user service");
+        STRUCTURED.info("--> validating user...");
+        STRUCTURED.info("--> user created successfully", "id", id);
+    }
+}
@@ -0,0 +1,106 @@
+package com.eprcuen.benchmarks.commons;
+
+import com.eprcuen.commons.codec.BinaryEventDeserializer;
+import com.eprcuen.commons.codec.BinaryEventSerializer;
+import com.eprcuen.commons.models.HighMsg;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventCodecBenchmark compares the binary event codec with the JsonSerializer/JsonDeserializer path
+ * for HighMsg, both configured as the services configure them (type headers, trusted packages).
+ * The encodedBytes counter reports the size of one encoded event for each format.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+    private static final String TOPIC = "user-topic";
+
+    @Param({"JSON", "BINARY"})
+    public String format;
+
+    private org.apache.kafka.common.serialization.Serializer<Object> serializer;
+    private org.apache.kafka.common.serialization.Deserializer<Object> deserializer;
+    private HighMsg msg;
+    private Headers headers;
+    private byte[] payload;
+
+    /**
+     * Size of the encoded event, reported once per iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long encodedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Map<String, Object> configs = Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        if ("BINARY".equals(format)) {
+            serializer = new BinaryEventSerializer();
+            deserializer = new BinaryEventDeserializer();
+        } else {
+            serializer = new JsonSerializer<>();
+            deserializer = new JsonDeserializer<>();
+        }
+        serializer.configure(configs, false);
+        deserializer.configure(configs, false);
+        msg = HighMsg.builder()
+                .email("john.doe@mail.example.com")
+                .username("john.doe")
+                .validationToken("3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44")
+                .createdAt(System.currentTimeMillis())
+                .build();
+        headers = new RecordHeaders();
+        payload = serializer.serialize(TOPIC, headers, msg);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize(Size size) {
+        byte[] bytes = serializer.serialize(TOPIC, new RecordHeaders(), msg);
+        size.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, headers, payload);
+    }
+}
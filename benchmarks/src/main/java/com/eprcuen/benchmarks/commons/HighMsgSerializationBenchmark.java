@@ -0,0 +1,73 @@
+package com.eprcuen.benchmarks.commons;
+
+import com.eprcuen.commons.models.HighMsg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HighMsgSerializationBenchmark measures the Kafka JsonSerializer/JsonDeserializer round trip of HighMsg
+ * between the user service and the notification service.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighMsgSerializationBenchmark {
+    private static final String TOPIC = "user-topic";
+
+    private JsonSerializer<HighMsg> serializer;
+    private JsonDeserializer<HighMsg> deserializer;
+    private HighMsg msg;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>(HighMsg.class, false);
+        msg = HighMsg.builder()
+                .email("john.doe@mail.example.com")
+                .username("john.doe")
+                .validationToken("3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44")
+                .createdAt(System.currentTimeMillis())
+                .build();
+        payload = serializer.serialize(TOPIC, msg);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, msg);
+    }
+
+    @Benchmark
+    public HighMsg deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public HighMsg roundTrip() {
+        return deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, msg));
+    }
+}
@@ -0,0 +1,87 @@
+package com.eprcuen.benchmarks.commons;
+
+import com.eprcuen.commons.helpers.PasswordPolicy;
+import com.eprcuen.commons.helpers.ValidationHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * ValidationHelperBenchmark compares ValidationHelper against the per-call regex compilation it replaced.
+ * The adversarial cases are long inputs that make the lookahead and the nested email groups backtrack.
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar ValidationHelperBenchmark -prof gc}.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationHelperBenchmark {
+    private static final String LEGACY_EMAIL_REGEX =
+            "^[_A-Za-z0-9-+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
+    private static final String LEGACY_PASS_REGEX =
+            "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$";
+
+    @Param({"VALID", "INVALID", "ADVERSARIAL"})
+    public String input;
+
+    private String email;
+    private String password;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "VALID" -> {
+                email = "john.doe@mail.example.com";
+                password = "S3cure@Passw0rd";
+            }
+            case "INVALID" -> {
+                email = "john.doe@mail";
+                password = "password";
+            }
+            default -> {
+                email = "a@a" + ".a1".repeat(5_000) + "!";
+                password = "a".repeat(100_000);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean legacyValidateEmail() {
+        return Pattern.compile(LEGACY_EMAIL_REGEX).matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean validateEmail() {
+        return ValidationHelper.validateEmail(email);
+    }
+
+    @Benchmark
+    public boolean legacyValidatePassword() {
+        return Pattern.compile(LEGACY_PASS_REGEX).matcher(password).matches();
+    }
+
+    @Benchmark
+    public boolean validatePassword() {
+        return ValidationHelper.validatePassword(password);
+    }
+
+    @Benchmark
+    public int checkPassword() {
+        return PasswordPolicy.check(password);
+    }
+}
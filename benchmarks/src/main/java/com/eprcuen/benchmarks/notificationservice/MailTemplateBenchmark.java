@@ -0,0 +1,70 @@
+package com.eprcuen.benchmarks.notificationservice;
+
+import com.eprcuen.notificationservice.services.impl.MailSenderImpl;
+import com.eprcuen.notificationservice.utils.templates.TemplateRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MailTemplateBenchmark measures MailSenderImpl.sendEmailWithTemplate with the activation template,
+ * against a JavaMailSender that builds the MimeMessage but never opens an SMTP connection.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateBenchmark {
+    private static final String TEMPLATE = "templates/activate_account.html";
+    private static final String[] TO = {"john.doe@mail.example.com"};
+
+    private MailSenderImpl mailSender;
+    private Map<String, String> data;
+
+    @Setup
+    public void setup() {
+        mailSender = new MailSenderImpl(new NoopMailSender(),
+                new TemplateRegistry("classpath*:templates/**/*.html"), new SimpleMeterRegistry(),
+                "noreply@epecuen.com");
+        data = Map.of("name", "john.doe", "token", "3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44",
+                "link", "http://localhost:40000/epecuen/api/v1/users/activate?token=3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44");
+    }
+
+    @Benchmark
+    public void renderActivationTemplate() {
+        mailSender.sendEmailWithTemplate(TO, "Activate your account", TEMPLATE, data);
+    }
+
+    /**
+     * Prepares messages like the real sender but drops them instead of sending.
+     */
+    private static class NoopMailSender extends JavaMailSenderImpl {
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    message.saveChanges();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
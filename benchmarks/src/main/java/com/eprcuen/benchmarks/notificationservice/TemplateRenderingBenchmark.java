@@ -0,0 +1,61 @@
+package com.eprcuen.benchmarks.notificationservice;
+
+import com.eprcuen.notificationservice.utils.templates.CompiledTemplate;
+import com.eprcuen.notificationservice.utils.templates.TemplateRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TemplateRenderingBenchmark compares the rendering of the activation template as MailSenderImpl used to do it,
+ * reading the template from the classpath and copying it once per replaced key, with a CompiledTemplate
+ * from the TemplateRegistry. Run with -prof gc to compare the allocation per operation.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderingBenchmark {
+    private static final String TEMPLATE = "templates/activate_account.html";
+
+    private CompiledTemplate compiled;
+    private Map<String, String> data;
+
+    @Setup
+    public void setup() {
+        compiled = new TemplateRegistry("classpath*:templates/**/*.html").get(TEMPLATE);
+        data = Map.of("name", "john.doe", "token", "3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44",
+                "link", "http://localhost:40000/epecuen/api/v1/users/activate?token=3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44");
+    }
+
+    @Benchmark
+    public String loadAndReplace() throws IOException {
+        String template = new String(new ClassPathResource(TEMPLATE).getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        for (Map.Entry<String, String> m : data.entrySet()) {
+            template = template.replace("${" + m.getKey() + "}", m.getValue());
+        }
+        return template;
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiled.render(data);
+    }
+}
@@ -0,0 +1,119 @@
+package com.eprcuen.benchmarks.userservice;
+
+import com.eprcuen.commons.models.HighMsg;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KafkaPublishBenchmark compares publishing HighMsg events through a KafkaTemplate with publishing them
+ * through the reactive KafkaSender used by the outbox relay. Both producers share the producer settings of
+ * application.kafka.producer, so the difference measured is the publishing path alone.
+ * It needs a running broker, by default the one of docker-compose.yml:
+ * {@code java -jar benchmarks/target/benchmarks.jar KafkaPublishBenchmark -p bootstrapServers=localhost:9092}.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class KafkaPublishBenchmark {
+    private static final String TOPIC = "publish-benchmark-topic";
+    private static final int MESSAGES = 10_000;
+
+    @Param({"localhost:9092"})
+    public String bootstrapServers;
+
+    private KafkaTemplate<String, Object> template;
+    private KafkaSender<String, Object> sender;
+    private HighMsg[] messages;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        sender = KafkaSender.create(SenderOptions.<String, Object>create(props)
+                .maxInFlight(256)
+                .stopOnError(false));
+        messages = new HighMsg[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            messages[i] = HighMsg.builder()
+                    .email("user" + i + "@epecuen.com")
+                    .username("user" + i)
+                    .validationToken("token-" + i)
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        template.destroy();
+        sender.close();
+    }
+
+    /**
+     * One keyed send per message, then waits for every acknowledgement.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int kafkaTemplate() {
+        CompletableFuture<?>[] futures = new CompletableFuture[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            futures[i] = template.send(TOPIC, messages[i].getEmail(), messages[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    /**
+     * Keyed records streamed through the sender with bounded in-flight records.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long kafkaSender() {
+        Long acknowledged = sender.send(Flux.range(0, MESSAGES)
+                        .map(i -> SenderRecord.<String, Object, Integer>create(
+                                new ProducerRecord<>(TOPIC, messages[i].getEmail(), messages[i]), i)))
+                .filter(result -> result.exception() == null)
+                .count()
+                .block();
+        if (acknowledged == null || acknowledged != MESSAGES) {
+            throw new IllegalStateException("Only " + acknowledged + " of " + MESSAGES + " records were acknowledged");
+        }
+        return acknowledged;
+    }
+}
@@ -0,0 +1,54 @@
+package com.eprcuen.benchmarks.userservice;
+
+import com.eprcuen.userservice.utils.ratelimit.TokenBucketLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenBucketLimiterBenchmark measures the per-request cost of the rate limiter,
+ * for one hot client contended by all threads and for requests spread over many clients.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TokenBucketLimiterBenchmark {
+    @Param({"1", "10000"})
+    public int clients;
+
+    private TokenBucketLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        limiter = new TokenBucketLimiter(100, 50, 100_000, Duration.ofMinutes(10));
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(clients)], System.nanoTime());
+    }
+}
@@ -0,0 +1,55 @@
+package com.eprcuen.benchmarks.userservice;
+
+import com.eprcuen.userservice.api.models.requests.UserRequest;
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.persistence.entities.UserApp;
+import com.eprcuen.userservice.utils.mappers.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserMapperBenchmark measures the request-to-entity and entity-to-dto mappings used on every user request.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private final UserRequest request = UserRequest.builder()
+            .username("john.doe")
+            .email("john.doe@mail.example.com")
+            .telephone("+54 9 11 5555 0101")
+            .password("S3cure@Passw0rd")
+            .confirmPassword("S3cure@Passw0rd")
+            .build();
+    private final UserApp user = UserApp.builder()
+            .id(4_211L)
+            .username("john.doe")
+            .email("john.doe@mail.example.com")
+            .telephone("+54 9 11 5555 0101")
+            .role("ROLE_USER")
+            .build();
+
+    @Benchmark
+    public UserApp mapToEntity() {
+        return UserMapper.mapTOEntity(request);
+    }
+
+    @Benchmark
+    public UserResponse mapToDto() {
+        return UserMapper.mapToDto(user);
+    }
+}
@@ -0,0 +1,123 @@
+package com.eprcuen.benchmarks.userservice;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.utils.json.UserResponseEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserResponseEncodingBenchmark compares Jackson with UserResponseEncoder on UserResponse lists, as returned
+ * by GET /users: encoding to a byte array, as the listing cache does, and streaming a Flux into pooled
+ * Netty buffers, as the server does. The cached variant reuses the encoded bytes of every row.
+ * Run with -prof gc to compare the allocation per operation.
+ *
+ * @author caito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseEncodingBenchmark {
+    private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(UserResponse.class);
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private ObjectWriter writer;
+    private Jackson2JsonEncoder jacksonEncoder;
+    private UserResponseEncoder encoder;
+    private UserResponseEncoder cachedEncoder;
+    private List<UserResponse> users;
+
+    @Setup
+    public void setup() {
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, UserResponse.class));
+        jacksonEncoder = new Jackson2JsonEncoder(objectMapper);
+        encoder = new UserResponseEncoder(null);
+        cachedEncoder = new UserResponseEncoder(Caffeine.newBuilder().maximumSize(size).build());
+        users = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            users.add(UserResponse.builder()
+                    .id(i)
+                    .username("user" + i)
+                    .email("user" + i + "@mail.example.com")
+                    .telephone("+54 9 11 5555 " + i)
+                    .role("ROLE_USER")
+                    .build());
+        }
+        cachedEncoder.encodeList(users);
+    }
+
+    @Benchmark
+    public byte[] encodeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] encodeListHandWritten() {
+        return encoder.encodeList(users);
+    }
+
+    @Benchmark
+    public byte[] encodeListCachedRows() {
+        return cachedEncoder.encodeList(users);
+    }
+
+    @Benchmark
+    public long streamJackson() {
+        return drain(jacksonEncoder.encode(Flux.fromIterable(users), bufferFactory, ELEMENT_TYPE,
+                MediaType.APPLICATION_JSON, Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public long streamHandWritten() {
+        return drain(encoder.encode(Flux.fromIterable(users), bufferFactory, ELEMENT_TYPE,
+                MediaType.APPLICATION_JSON, Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public long streamCachedRows() {
+        return drain(cachedEncoder.encode(Flux.fromIterable(users), bufferFactory, ELEMENT_TYPE,
+                MediaType.APPLICATION_JSON, Collections.emptyMap()));
+    }
+
+    private static long drain(Flux<DataBuffer> buffers) {
+        return buffers.map(buffer -> {
+                    int bytes = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) bytes;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+}
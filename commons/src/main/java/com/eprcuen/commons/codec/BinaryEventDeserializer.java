@@ -0,0 +1,38 @@
+package com.eprcuen.commons.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka Deserializer reading both wire formats.
+ * Values starting with the binary envelope are decoded with their codec, anything else is handed to
+ * Spring's JsonDeserializer, configured from the same properties (trusted packages, type headers).
+ *
+ * @author caito
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return EventCodecs.isBinary(data) ? EventCodecs.decode(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return EventCodecs.isBinary(data) ? EventCodecs.decode(data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
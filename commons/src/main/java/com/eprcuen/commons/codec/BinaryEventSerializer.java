@@ -0,0 +1,43 @@
+package com.eprcuen.commons.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka Serializer writing events with a registered codec in the binary format
+ * and any other value with Spring's JsonSerializer.
+ *
+ * @author caito
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        return EventCodecs.supports(data.getClass()) ? EventCodecs.encode(data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        return EventCodecs.supports(data.getClass()) ? EventCodecs.encode(data) : json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.eprcuen.commons.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryReader reads the tagged fields written by {@link BinaryWriter}.
+ * Codecs loop over {@link #nextTag()} and {@link #skip()} the tags they do not know,
+ * which is what lets older readers accept events written by newer schemas.
+ *
+ * @author caito
+ */
+public final class BinaryReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+    private int wireType;
+
+    BinaryReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = buffer.length;
+    }
+
+    /**
+     * Moves to the next field.
+     *
+     * @return the tag of the next field, or 0 at the end of the event
+     */
+    public int nextTag() {
+        if (position >= limit) {
+            return 0;
+        }
+        long key = this.readVarint();
+        wireType = (int) (key & 0x7);
+        return (int) (key >>> 3);
+    }
+
+    public String readString() {
+        this.expect(BinaryWriter.WIRE_BYTES);
+        int length = this.readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public long readLong() {
+        this.expect(BinaryWriter.WIRE_VARINT);
+        long raw = this.readVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public boolean readBoolean() {
+        this.expect(BinaryWriter.WIRE_VARINT);
+        return this.readVarint() != 0;
+    }
+
+    /**
+     * Skips the value of the current field.
+     */
+    public void skip() {
+        switch (wireType) {
+            case BinaryWriter.WIRE_VARINT -> this.readVarint();
+            case BinaryWriter.WIRE_BYTES -> {
+                int length = this.readLength();
+                position += length;
+            }
+            default -> throw new SerializationException("Unknown wire type " + wireType);
+        }
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new SerializationException("Truncated event");
+            }
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    private int readLength() {
+        long length = this.readVarint();
+        if (length < 0 || length > limit - position) {
+            throw new SerializationException("Truncated event");
+        }
+        return (int) length;
+    }
+
+    private void expect(int expected) {
+        if (wireType != expected) {
+            throw new SerializationException("Unexpected wire type " + wireType);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.eprcuen.commons.codec;
+
+import java.util.Arrays;
+
+/**
+ * BinaryWriter appends tagged fields to a growable buffer.
+ * Every field is written as a varint key (tag and wire type) followed by its value; null values are
+ * skipped, so readers see them as absent. Writers are reused per thread through {@link #local()}.
+ *
+ * @author caito
+ */
+public final class BinaryWriter {
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_BYTES = 2;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<BinaryWriter> LOCAL = ThreadLocal.withInitial(BinaryWriter::new);
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int position;
+
+    /**
+     * Returns the writer of the current thread, emptied.
+     *
+     * @return a reset writer
+     */
+    static BinaryWriter local() {
+        BinaryWriter writer = LOCAL.get();
+        if (writer.buffer.length > MAX_RETAINED_CAPACITY) {
+            writer.buffer = new byte[INITIAL_CAPACITY];
+        }
+        writer.position = 0;
+        return writer;
+    }
+
+    public BinaryWriter writeString(int tag, String value) {
+        if (value != null) {
+            this.writeVarint(((long) tag << 3) | WIRE_BYTES);
+            int length = utf8Length(value);
+            this.writeVarint(length);
+            this.ensure(length);
+            this.writeUtf8(value);
+        }
+        return this;
+    }
+
+    public BinaryWriter writeLong(int tag, Long value) {
+        if (value != null) {
+            this.writeVarint(((long) tag << 3) | WIRE_VARINT);
+            this.writeVarint((value << 1) ^ (value >> 63));
+        }
+        return this;
+    }
+
+    public BinaryWriter writeBoolean(int tag, Boolean value) {
+        if (value != null) {
+            this.writeVarint(((long) tag << 3) | WIRE_VARINT);
+            this.writeVarint(value ? 1 : 0);
+        }
+        return this;
+    }
+
+    void writeByte(int value) {
+        this.ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarint(long value) {
+        this.ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeUtf8(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = (byte) '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+}
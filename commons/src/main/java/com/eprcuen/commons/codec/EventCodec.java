@@ -0,0 +1,28 @@
+package com.eprcuen.commons.codec;
+
+/**
+ * EventCodec encodes one event type as tagged fields.
+ * Field tags are part of the schema: a tag may be added or stop being written, but never reused
+ * for another field. Decoders must skip unknown tags and leave missing fields null.
+ *
+ * @param <T> the event type
+ * @author caito
+ */
+public interface EventCodec<T> {
+
+    /**
+     * @return the id written in the event header, unique among the registered codecs
+     */
+    int typeId();
+
+    /**
+     * @return the current schema version, increased whenever fields are added
+     */
+    int schemaVersion();
+
+    Class<T> type();
+
+    void encode(T event, BinaryWriter writer);
+
+    T decode(BinaryReader reader);
+}
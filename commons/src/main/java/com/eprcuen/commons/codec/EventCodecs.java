@@ -0,0 +1,94 @@
+package com.eprcuen.commons.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventCodecs is the registry of binary event codecs and the event envelope.
+ * An encoded event is: magic byte, format version, type id (varint), schema version (varint),
+ * then the tagged fields of the codec. New event types are added by registering their codec here.
+ *
+ * @author caito
+ */
+public final class EventCodecs {
+    static final byte MAGIC = (byte) 0xE7;
+    static final byte FORMAT_VERSION = 1;
+    private static final List<EventCodec<?>> CODECS = List.of(new HighMsgCodec(), new UserChangedMsgCodec());
+    private static final Map<Class<?>, EventCodec<?>> BY_TYPE = new HashMap<>();
+    private static final Map<Integer, EventCodec<?>> BY_ID = new HashMap<>();
+
+    static {
+        for (EventCodec<?> codec : CODECS) {
+            BY_TYPE.put(codec.type(), codec);
+            if (BY_ID.put(codec.typeId(), codec) != null) {
+                throw new IllegalStateException("Duplicate event type id " + codec.typeId());
+            }
+        }
+    }
+
+    private EventCodecs() {
+    }
+
+    /**
+     * @param type an event class
+     * @return true if events of this class can be encoded in binary
+     */
+    public static boolean supports(Class<?> type) {
+        return BY_TYPE.containsKey(type);
+    }
+
+    /**
+     * @param data a serialized event
+     * @return true if the data starts with the binary envelope
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    /**
+     * Encodes an event with its registered codec, in the buffer of the calling thread.
+     *
+     * @param event the event to encode
+     * @return the encoded event
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> byte[] encode(T event) {
+        EventCodec<T> codec = (EventCodec<T>) BY_TYPE.get(event.getClass());
+        if (codec == null) {
+            throw new SerializationException("No binary codec for " + event.getClass().getName());
+        }
+        BinaryWriter writer = BinaryWriter.local();
+        writer.writeByte(MAGIC);
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeVarint(codec.typeId());
+        writer.writeVarint(codec.schemaVersion());
+        codec.encode(event, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes an event written by {@link #encode(Object)}, whatever the schema version of its writer.
+     *
+     * @param data the encoded event
+     * @return the decoded event
+     */
+    public static Object decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary event");
+        }
+        if (data[1] != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported event format version " + data[1]);
+        }
+        BinaryReader reader = new BinaryReader(data, 2);
+        long typeId = reader.readVarint();
+        EventCodec<?> codec = BY_ID.get((int) typeId);
+        if (codec == null) {
+            throw new SerializationException("Unknown event type id " + typeId);
+        }
+        reader.readVarint();
+        return codec.decode(reader);
+    }
+}
@@ -0,0 +1,12 @@
+package com.eprcuen.commons.codec;
+
+/**
+ * Wire format used by a service to publish events, selected with application.kafka.codec.
+ * Consumers accept both formats, so producers can be switched one at a time.
+ *
+ * @author caito
+ */
+public enum EventFormat {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,54 @@
+package com.eprcuen.commons.codec;
+
+import com.eprcuen.commons.models.HighMsg;
+
+/**
+ * Binary codec of HighMsg.
+ * Schema 1: email, username, validationToken, createdAt.
+ *
+ * @author caito
+ */
+public class HighMsgCodec implements EventCodec<HighMsg> {
+    private static final int EMAIL = 1;
+    private static final int USERNAME = 2;
+    private static final int VALIDATION_TOKEN = 3;
+    private static final int CREATED_AT = 4;
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public Class<HighMsg> type() {
+        return HighMsg.class;
+    }
+
+    @Override
+    public void encode(HighMsg event, BinaryWriter writer) {
+        writer.writeString(EMAIL, event.getEmail())
+                .writeString(USERNAME, event.getUsername())
+                .writeString(VALIDATION_TOKEN, event.getValidationToken())
+                .writeLong(CREATED_AT, event.getCreatedAt());
+    }
+
+    @Override
+    public HighMsg decode(BinaryReader reader) {
+        HighMsg msg = new HighMsg();
+        for (int tag = reader.nextTag(); tag != 0; tag = reader.nextTag()) {
+            switch (tag) {
+                case EMAIL -> msg.setEmail(reader.readString());
+                case USERNAME -> msg.setUsername(reader.readString());
+                case VALIDATION_TOKEN -> msg.setValidationToken(reader.readString());
+                case CREATED_AT -> msg.setCreatedAt(reader.readLong());
+                default -> reader.skip();
+            }
+        }
+        return msg;
+    }
+}
@@ -0,0 +1,51 @@
+package com.eprcuen.commons.codec;
+
+import com.eprcuen.commons.models.UserChangedMsg;
+
+/**
+ * Binary codec of UserChangedMsg.
+ * Schema 1: id, username, email.
+ *
+ * @author caito
+ */
+public class UserChangedMsgCodec implements EventCodec<UserChangedMsg> {
+    private static final int ID = 1;
+    private static final int USERNAME = 2;
+    private static final int EMAIL = 3;
+
+    @Override
+    public int typeId() {
+        return 2;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public Class<UserChangedMsg> type() {
+        return UserChangedMsg.class;
+    }
+
+    @Override
+    public void encode(UserChangedMsg event, BinaryWriter writer) {
+        writer.writeLong(ID, event.getId())
+                .writeString(USERNAME, event.getUsername())
+                .writeString(EMAIL, event.getEmail());
+    }
+
+    @Override
+    public UserChangedMsg decode(BinaryReader reader) {
+        UserChangedMsg msg = new UserChangedMsg();
+        for (int tag = reader.nextTag(); tag != 0; tag = reader.nextTag()) {
+            switch (tag) {
+                case ID -> msg.setId(reader.readLong());
+                case USERNAME -> msg.setUsername(reader.readString());
+                case EMAIL -> msg.setEmail(reader.readString());
+                default -> reader.skip();
+            }
+        }
+        return msg;
+    }
+}
@@ -0,0 +1,15 @@
+package com.eprcuen.commons.exceptions;
+
+/**
+ * Custom exception to indicate that a request conflicts with the current state of a resource.
+ * This exception is thrown, for example, when an idempotency key is reused with a different request,
+ * and should be answered with a 409 Conflict.
+ *
+ * @author caito
+ *
+ */
+public class ConflictException extends RuntimeException{
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.eprcuen.commons.exceptions;
+
+/**
+ * Custom exception to indicate that the service is temporarily overloaded.
+ * This exception is thrown when a bounded resource rejects work because its backlog is full,
+ * and should be answered with a 503 Service Unavailable so the client retries later.
+ *
+ * @author caito
+ *
+ */
+public class ServiceUnavailableException extends RuntimeException{
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
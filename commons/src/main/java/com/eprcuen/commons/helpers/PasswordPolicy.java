@@ -0,0 +1,96 @@
+package com.eprcuen.commons.helpers;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * PasswordPolicy checks passwords in a single pass without allocating.
+ * It enforces the same rules as the former lookahead regex (at least one digit, one lowercase letter,
+ * one uppercase letter, one of @#$%^&+= and no whitespace, minimum 8 characters) plus an upper bound of
+ * 72 UTF-8 bytes, which is all BCrypt hashes. Inputs longer than that are rejected before scanning.
+ * Like the regex, only ASCII letters and digits count towards the character classes, and the minimum
+ * length counts code points, so a supplementary character is one character.
+ *
+ * @author caito
+ */
+public final class PasswordPolicy {
+    public static final int MIN_LENGTH = 8;
+    public static final int MAX_BYTES = 72;
+    private static final int REQUIRED = PasswordViolation.MISSING_DIGIT.mask()
+            | PasswordViolation.MISSING_LOWERCASE.mask()
+            | PasswordViolation.MISSING_UPPERCASE.mask()
+            | PasswordViolation.MISSING_SPECIAL.mask();
+
+    private PasswordPolicy() {
+    }
+
+    /**
+     * Checks a password against the policy.
+     *
+     * @param password the password to check
+     * @return a bit mask of {@link PasswordViolation#mask()} values, 0 when the password is valid
+     */
+    public static int check(CharSequence password) {
+        int length = password.length();
+        if (length > MAX_BYTES) {
+            return PasswordViolation.TOO_LONG.mask();
+        }
+        int missing = REQUIRED;
+        int violations = 0;
+        int bytes = 0;
+        int codePoints = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (!Character.isLowSurrogate(c) || i == 0 || !Character.isHighSurrogate(password.charAt(i - 1))) {
+                codePoints++;
+            }
+            if (c >= '0' && c <= '9') {
+                missing &= ~PasswordViolation.MISSING_DIGIT.mask();
+            } else if (c >= 'a' && c <= 'z') {
+                missing &= ~PasswordViolation.MISSING_LOWERCASE.mask();
+            } else if (c >= 'A' && c <= 'Z') {
+                missing &= ~PasswordViolation.MISSING_UPPERCASE.mask();
+            } else if (isSpecial(c)) {
+                missing &= ~PasswordViolation.MISSING_SPECIAL.mask();
+            } else if (isWhitespace(c)) {
+                violations |= PasswordViolation.CONTAINS_WHITESPACE.mask();
+            }
+            bytes += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+        }
+        if (codePoints < MIN_LENGTH) {
+            violations |= PasswordViolation.TOO_SHORT.mask();
+        }
+        if (bytes > MAX_BYTES) {
+            violations |= PasswordViolation.TOO_LONG.mask();
+        }
+        return violations | missing;
+    }
+
+    /**
+     * Decodes a violation mask.
+     *
+     * @param mask the mask returned by {@link #check(CharSequence)}
+     * @return the set of violations in the mask
+     */
+    public static Set<PasswordViolation> violations(int mask) {
+        Set<PasswordViolation> violations = EnumSet.noneOf(PasswordViolation.class);
+        for (PasswordViolation violation : PasswordViolation.values()) {
+            if ((mask & violation.mask()) != 0) {
+                violations.add(violation);
+            }
+        }
+        return violations;
+    }
+
+    private static boolean isSpecial(char c) {
+        return c == '@' || c == '#' || c == '$' || c == '%' || c == '^' || c == '&' || c == '+' || c == '=';
+    }
+
+    /**
+     * Whitespace as rejected by the former regex: the \s class plus the line terminators that "." did not match.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r'
+                || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
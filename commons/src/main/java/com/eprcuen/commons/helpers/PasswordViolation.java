@@ -0,0 +1,32 @@
+package com.eprcuen.commons.helpers;
+
+/**
+ * PasswordViolation enumerates the rules of the password policy.
+ * Each violation has a bit in the mask returned by {@link PasswordPolicy#check(CharSequence)}
+ * and a message suitable for validation error responses.
+ *
+ * @author caito
+ */
+public enum PasswordViolation {
+    TOO_SHORT("Password must be at least " + PasswordPolicy.MIN_LENGTH + " characters long"),
+    TOO_LONG("Password must be at most " + PasswordPolicy.MAX_BYTES + " bytes long"),
+    MISSING_DIGIT("Password must contain at least one digit"),
+    MISSING_LOWERCASE("Password must contain at least one lowercase letter"),
+    MISSING_UPPERCASE("Password must contain at least one uppercase letter"),
+    MISSING_SPECIAL("Password must contain at least one special character (@#$%^&+=)"),
+    CONTAINS_WHITESPACE("Password must not contain whitespace");
+
+    private final String message;
+
+    PasswordViolation(String message) {
+        this.message = message;
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
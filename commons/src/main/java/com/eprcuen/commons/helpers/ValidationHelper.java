@@ -4,10 +4,14 @@ import java.util.regex.Pattern;
 
 /**
  * ValidationHelper provides utility methods for validating various data formats.
+ * Patterns are compiled once, and oversized inputs are rejected before any matching.
  *
  * @author caito
  */
 public class ValidationHelper {
+    public static final int MAX_EMAIL_LENGTH = 254;
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[_A-Za-z0-9-+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
 
     /**
      * Validates if the given email address is in a correct format.
@@ -16,8 +20,7 @@ public class ValidationHelper {
      * @return true if the email is valid, false otherwise
      */
     public static boolean validateEmail(String email){
-        Pattern PATTERN = Pattern.compile("^[_A-Za-z0-9-+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
-        return PATTERN.matcher(email).matches();
+        return email.length() <= MAX_EMAIL_LENGTH && EMAIL_PATTERN.matcher(email).matches();
     }
 
     /**
@@ -27,10 +30,9 @@ public class ValidationHelper {
      *
      * @param password the password to validate
      * @return true if the password is valid, false otherwise
+     * @see PasswordPolicy#check(CharSequence) for the individual violations
      */
     public static boolean validatePassword(String password){
-        final String PASS_REGEX = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$";
-        final Pattern PASS_PATTERN = Pattern.compile(PASS_REGEX);
-        return PASS_PATTERN.matcher(password).matches();
+        return PasswordPolicy.check(password) == 0;
     }
 }
@@ -0,0 +1,137 @@
+package com.eprcuen.commons.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+/**
+ * StructuredLogger is a thin facade over SLF4J for hot paths.
+ * Messages are constant strings and variable data is attached as key-value fields, so nothing is
+ * concatenated or formatted unless the level is enabled; the appender renders the fields (see logback-epecuen.xml).
+ * Colors are left to the appender pattern, which only emits them when the output is a terminal.
+ * Throwables given to the warn and error methods become the cause of the event, so their stack trace is logged.
+ *
+ * @author caito
+ */
+public final class StructuredLogger {
+    private final Logger logger;
+
+    private StructuredLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Creates a logger named after the given class.
+     *
+     * @param type the class owning the logger
+     * @return the structured logger
+     */
+    public static StructuredLogger of(Class<?> type) {
+        return new StructuredLogger(LoggerFactory.getLogger(type));
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public void debug(String message) {
+        logger.debug(message);
+    }
+
+    public void debug(String message, String key, Object value) {
+        if (logger.isDebugEnabled()) {
+            logger.atDebug().addKeyValue(key, value).log(message);
+        }
+    }
+
+    public void info(String message) {
+        logger.info(message);
+    }
+
+    public void info(String message, String key, Object value) {
+        if (logger.isInfoEnabled()) {
+            logger.atInfo().addKeyValue(key, value).log(message);
+        }
+    }
+
+    public void info(String message, String key1, Object value1, String key2, Object value2) {
+        if (logger.isInfoEnabled()) {
+            logger.atInfo().addKeyValue(key1, value1).addKeyValue(key2, value2).log(message);
+        }
+    }
+
+    public void info(String message, String key1, Object value1, String key2, Object value2,
+                     String key3, Object value3) {
+        if (logger.isInfoEnabled()) {
+            logger.atInfo().addKeyValue(key1, value1).addKeyValue(key2, value2).addKeyValue(key3, value3).log(message);
+        }
+    }
+
+    public void warn(String message) {
+        logger.warn(message);
+    }
+
+    public void warn(String message, String key, Object value) {
+        if (logger.isWarnEnabled()) {
+            with(logger.atWarn(), key, value).log(message);
+        }
+    }
+
+    public void warn(String message, String key1, Object value1, String key2, Object value2) {
+        if (logger.isWarnEnabled()) {
+            with(with(logger.atWarn(), key1, value1), key2, value2).log(message);
+        }
+    }
+
+    public void error(String message) {
+        logger.error(message);
+    }
+
+    public void error(String message, String key, Object value) {
+        if (logger.isErrorEnabled()) {
+            with(logger.atError(), key, value).log(message);
+        }
+    }
+
+    public void error(String message, String key1, Object value1, String key2, Object value2) {
+        if (logger.isErrorEnabled()) {
+            with(with(logger.atError(), key1, value1), key2, value2).log(message);
+        }
+    }
+
+    /**
+     * Logs an error with its cause, which the appender renders with its stack trace.
+     *
+     * @param message the message to log
+     * @param error   the cause
+     */
+    public void error(String message, Throwable error) {
+        if (logger.isErrorEnabled()) {
+            logger.atError().setCause(error).log(message);
+        }
+    }
+
+    public void error(String message, String key, Object value, Throwable error) {
+        if (logger.isErrorEnabled()) {
+            with(logger.atError(), key, value).setCause(error).log(message);
+        }
+    }
+
+    public void error(String message, String key1, Object value1, String key2, Object value2, Throwable error) {
+        if (logger.isErrorEnabled()) {
+            with(with(logger.atError(), key1, value1), key2, value2).setCause(error).log(message);
+        }
+    }
+
+    /**
+     * Adds a key-value field to an event. A Throwable value is set as the cause of the event instead,
+     * so its stack trace is logged rather than its toString.
+     */
+    private static LoggingEventBuilder with(LoggingEventBuilder event, String key, Object value) {
+        return value instanceof Throwable cause ? event.setCause(cause) : event.addKeyValue(key, value);
+    }
+}
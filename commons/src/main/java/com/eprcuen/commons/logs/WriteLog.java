@@ -3,6 +3,8 @@ package com.eprcuen.commons.logs;
 /**
  * Utility class for logging messages with different styles.
  * Provides methods to log information and errors with specific color codes.
+ * Colors are only added when the JVM is attached to a terminal, so log collectors never receive escape codes.
+ * Hot paths should prefer {@link StructuredLogger}, which does not build the message when the level is disabled.
  *
  * @author caito
  */
@@ -11,6 +13,7 @@ public class WriteLog {
     private static final String COLOR_RED = "\u001B[31m";
     private static final String COLOR_YELLOW = "\u001B[33m";
     private static final String COLOR_RESET = "\u001B[0m";
+    private static final boolean COLORS = System.console() != null;
 
     /**
      * Logs an informational message with yellow color.
@@ -19,7 +22,7 @@ public class WriteLog {
      * @return the formatted message with yellow color
      */
     public static String logInfo(String message) {
-        return COLOR_GREEN + message + COLOR_RESET;
+        return COLORS ? COLOR_GREEN + message + COLOR_RESET : message;
     }
 
     /**
@@ -29,7 +32,7 @@ public class WriteLog {
      * @return the formatted message with red color
      */
     public static String logError(String message) {
-        return COLOR_RED +message + COLOR_RESET;
+        return COLORS ? COLOR_RED + message + COLOR_RESET : message;
     }
 
     /**
@@ -39,6 +42,6 @@ public class WriteLog {
      * @return the formatted message with yellow color
      */
     public static String logWarning(String message) {
-        return COLOR_YELLOW + message +  COLOR_RESET;
+        return COLORS ? COLOR_YELLOW + message + COLOR_RESET : message;
     }
 }
@@ -10,6 +10,8 @@ import java.io.Serializable;
 /**
  * HighMsg class represents a message with high priority.
  * It contains the email and username of the user.
+ * createdAt is the epoch millis at which the user was created, used to measure the end-to-end
+ * latency until the activation email is sent; it is null in messages from older producers.
  * This class is used for sending high-priority messages in the system.
  *
  * @author caito
@@ -20,4 +22,5 @@ public class HighMsg implements Serializable {
     private String email;
     private String username;
     private String validationToken;
+    private Long createdAt;
 }
@@ -0,0 +1,23 @@
+package com.eprcuen.commons.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * UserChangedMsg class represents a notification that a user was created or modified.
+ * It contains the id, username and email of the user, so every instance can evict
+ * its cached copies of that user.
+ *
+ * @author caito
+ */
+@NoArgsConstructor@AllArgsConstructor
+@Data@Builder
+public class UserChangedMsg implements Serializable {
+    private Long id;
+    private String username;
+    private String email;
+}
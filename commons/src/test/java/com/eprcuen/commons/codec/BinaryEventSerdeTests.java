@@ -0,0 +1,69 @@
+package com.eprcuen.commons.codec;
+
+import com.eprcuen.commons.models.HighMsg;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryEventSerdeTests {
+    private static final String TOPIC = "user-topic";
+    private static final HighMsg MSG = HighMsg.builder()
+            .email("josé@mail.example.com")
+            .username("josé")
+            .validationToken("3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44")
+            .createdAt(1_760_000_000_000L)
+            .build();
+
+    @Test
+    void writesRegisteredEventsInBinary() {
+        try (BinaryEventSerializer serializer = new BinaryEventSerializer();
+             BinaryEventDeserializer deserializer = this.deserializer()) {
+            RecordHeaders headers = new RecordHeaders();
+            byte[] data = serializer.serialize(TOPIC, headers, MSG);
+
+            assertThat(EventCodecs.isBinary(data)).isTrue();
+            assertThat(deserializer.deserialize(TOPIC, headers, data)).isEqualTo(MSG);
+        }
+    }
+
+    @Test
+    void writesOtherValuesAsJson() {
+        try (BinaryEventSerializer serializer = new BinaryEventSerializer()) {
+            byte[] data = serializer.serialize(TOPIC, new RecordHeaders(), Map.of("key", "value"));
+
+            assertThat(EventCodecs.isBinary(data)).isFalse();
+            assertThat(new String(data, StandardCharsets.UTF_8)).isEqualTo("{\"key\":\"value\"}");
+        }
+    }
+
+    @Test
+    void readsEventsPublishedAsJson() {
+        try (JsonSerializer<Object> json = new JsonSerializer<>();
+             BinaryEventDeserializer deserializer = this.deserializer()) {
+            RecordHeaders headers = new RecordHeaders();
+            byte[] data = json.serialize(TOPIC, headers, MSG);
+
+            assertThat(EventCodecs.isBinary(data)).isFalse();
+            assertThat(deserializer.deserialize(TOPIC, headers, data)).isEqualTo(MSG);
+        }
+    }
+
+    @Test
+    void keepsNullValues() {
+        try (BinaryEventSerializer serializer = new BinaryEventSerializer()) {
+            assertThat(serializer.serialize(TOPIC, new RecordHeaders(), null)).isNull();
+        }
+    }
+
+    private BinaryEventDeserializer deserializer() {
+        BinaryEventDeserializer deserializer = new BinaryEventDeserializer();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.eprcuen.commons.models"), false);
+        return deserializer;
+    }
+}
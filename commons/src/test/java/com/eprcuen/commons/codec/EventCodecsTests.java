@@ -0,0 +1,140 @@
+package com.eprcuen.commons.codec;
+
+import com.eprcuen.commons.models.HighMsg;
+import com.eprcuen.commons.models.UserChangedMsg;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecsTests {
+
+    @Test
+    void roundTripsHighMsg() {
+        HighMsg msg = HighMsg.builder()
+                .email("john.doe@mail.example.com")
+                .username("john.doe")
+                .validationToken("3f1c2a9e-6b7d-4e0a-9c55-2d8f0b1e7a44")
+                .createdAt(1_760_000_000_000L)
+                .build();
+
+        assertThat(EventCodecs.decode(EventCodecs.encode(msg))).isEqualTo(msg);
+    }
+
+    @Test
+    void roundTripsUserChangedMsg() {
+        UserChangedMsg msg = UserChangedMsg.builder()
+                .id(42L)
+                .username("john.doe")
+                .email("john.doe@mail.example.com")
+                .build();
+
+        assertThat(EventCodecs.decode(EventCodecs.encode(msg))).isEqualTo(msg);
+    }
+
+    @Test
+    void roundTripsNonAsciiText() {
+        HighMsg msg = HighMsg.builder()
+                .email("josé.ñandú@correo.example.com")
+                .username("北京 \u00e9\u0800\uFFFF")
+                .validationToken("emoji 😀 and 𝄞")
+                .build();
+
+        assertThat(EventCodecs.decode(EventCodecs.encode(msg))).isEqualTo(msg);
+    }
+
+    @Test
+    void replacesUnpairedSurrogates() {
+        HighMsg msg = HighMsg.builder()
+                .username("a\uD83Db")
+                .validationToken("\uDE00")
+                .build();
+
+        HighMsg decoded = (HighMsg) EventCodecs.decode(EventCodecs.encode(msg));
+
+        assertThat(decoded.getUsername()).isEqualTo("a?b");
+        assertThat(decoded.getValidationToken()).isEqualTo("?");
+    }
+
+    @Test
+    void leavesNullFieldsAbsent() {
+        HighMsg msg = HighMsg.builder().email("john.doe@mail.example.com").build();
+
+        HighMsg decoded = (HighMsg) EventCodecs.decode(EventCodecs.encode(msg));
+
+        assertThat(decoded).isEqualTo(msg);
+        assertThat(decoded.getUsername()).isNull();
+        assertThat(decoded.getCreatedAt()).isNull();
+    }
+
+    @Test
+    void roundTripsExtremeLongs() {
+        for (long id : new long[]{0, -1, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            UserChangedMsg msg = UserChangedMsg.builder().id(id).build();
+
+            assertThat(EventCodecs.decode(EventCodecs.encode(msg))).isEqualTo(msg);
+        }
+    }
+
+    @Test
+    void writesTheEnvelope() {
+        byte[] data = EventCodecs.encode(HighMsg.builder().build());
+
+        assertThat(EventCodecs.isBinary(data)).isTrue();
+        assertThat(data[0]).isEqualTo(EventCodecs.MAGIC);
+        assertThat(data[1]).isEqualTo(EventCodecs.FORMAT_VERSION);
+        assertThat(data[2]).isEqualTo((byte) new HighMsgCodec().typeId());
+        assertThat(data[3]).isEqualTo((byte) new HighMsgCodec().schemaVersion());
+    }
+
+    @Test
+    void skipsTagsWrittenByNewerSchemas() {
+        BinaryWriter writer = BinaryWriter.local();
+        writer.writeByte(EventCodecs.MAGIC);
+        writer.writeByte(EventCodecs.FORMAT_VERSION);
+        writer.writeVarint(new HighMsgCodec().typeId());
+        writer.writeVarint(new HighMsgCodec().schemaVersion() + 1);
+        writer.writeString(1, "john.doe@mail.example.com")
+                .writeString(90, "a field from the future")
+                .writeLong(91, 123_456_789L)
+                .writeBoolean(92, true)
+                .writeString(2, "john.doe");
+
+        HighMsg decoded = (HighMsg) EventCodecs.decode(writer.toByteArray());
+
+        assertThat(decoded.getEmail()).isEqualTo("john.doe@mail.example.com");
+        assertThat(decoded.getUsername()).isEqualTo("john.doe");
+        assertThat(decoded.getValidationToken()).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedEvents() {
+        byte[] data = EventCodecs.encode(HighMsg.builder()
+                .email("john.doe@mail.example.com")
+                .username("john.doe")
+                .build());
+
+        assertThatThrownBy(() -> EventCodecs.decode(Arrays.copyOf(data, data.length - 1)))
+                .isInstanceOf(SerializationException.class)
+                .hasMessage("Truncated event");
+        assertThatThrownBy(() -> EventCodecs.decode(Arrays.copyOf(data, 2)))
+                .isInstanceOf(SerializationException.class)
+                .hasMessage("Truncated event");
+    }
+
+    @Test
+    void rejectsUnknownEnvelopes() {
+        byte[] data = EventCodecs.encode(HighMsg.builder().build());
+        byte[] otherFormat = data.clone();
+        otherFormat[1] = (byte) (EventCodecs.FORMAT_VERSION + 1);
+        byte[] otherType = data.clone();
+        otherType[2] = 0x7F;
+
+        assertThatThrownBy(() -> EventCodecs.decode(otherFormat)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> EventCodecs.decode(otherType)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> EventCodecs.decode("{}".getBytes())).isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.eprcuen.commons.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordPolicyTests {
+    private static final Pattern LEGACY =
+            Pattern.compile("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$");
+
+    @Test
+    void acceptsValidPassword() {
+        assertThat(PasswordPolicy.check("Passw0rd@")).isZero();
+        assertThat(ValidationHelper.validatePassword("Passw0rd@")).isTrue();
+    }
+
+    @Test
+    void requiresMinimumLength() {
+        assertThat(violations("Pa0@xyz")).isEqualTo(EnumSet.of(PasswordViolation.TOO_SHORT));
+        assertThat(PasswordPolicy.check("Pa0@xyzw")).isZero();
+    }
+
+    @Test
+    void reportsEachMissingCharacterClass() {
+        assertThat(violations("Password@@")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_DIGIT));
+        assertThat(violations("PASSWORD1@")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_LOWERCASE));
+        assertThat(violations("password1@")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_UPPERCASE));
+        assertThat(violations("Password12")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_SPECIAL));
+        assertThat(violations("")).isEqualTo(EnumSet.of(PasswordViolation.TOO_SHORT,
+                PasswordViolation.MISSING_DIGIT, PasswordViolation.MISSING_LOWERCASE,
+                PasswordViolation.MISSING_UPPERCASE, PasswordViolation.MISSING_SPECIAL));
+    }
+
+    @Test
+    void acceptsEverySpecialCharacter() {
+        for (char special : "@#$%^&+=".toCharArray()) {
+            assertThat(PasswordPolicy.check("Passw0rd" + special)).isZero();
+        }
+        assertThat(violations("Passw0rd!")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_SPECIAL));
+    }
+
+    @Test
+    void rejectsWhitespaceAndLineTerminators() {
+        for (char c : " \t\n\u000B\f\r\u0085\u2028\u2029".toCharArray()) {
+            assertThat(violations("Pass" + c + "w0rd@")).isEqualTo(EnumSet.of(PasswordViolation.CONTAINS_WHITESPACE));
+        }
+        assertThat(PasswordPolicy.check("Pass\u00A0w0rd@")).isZero();
+    }
+
+    @Test
+    void doesNotCountNonAsciiLettersAndDigits() {
+        assertThat(PasswordPolicy.check("Pässw0rd@")).isZero();
+        assertThat(violations("ÑANDÚ1@çéñ")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_LOWERCASE));
+        assertThat(violations("ñandú1@ñandú")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_UPPERCASE));
+        assertThat(violations("Passwörd@١")).isEqualTo(EnumSet.of(PasswordViolation.MISSING_DIGIT));
+    }
+
+    @Test
+    void countsSupplementaryCharactersOnceTowardsTheMinimumLength() {
+        assertThat(violations("Ab1@😀😀😀")).isEqualTo(EnumSet.of(PasswordViolation.TOO_SHORT));
+        assertThat(PasswordPolicy.check("Ab1@😀😀😀😀")).isZero();
+    }
+
+    @Test
+    void limitsPasswordsToSeventyTwoUtf8Bytes() {
+        assertThat(PasswordPolicy.check("Aa1@" + "x".repeat(68))).isZero();
+        assertThat(violations("Aa1@" + "x".repeat(69))).isEqualTo(EnumSet.of(PasswordViolation.TOO_LONG));
+        assertThat(PasswordPolicy.check("Aa1@" + "é".repeat(34))).isZero();
+        assertThat(violations("Aa1@" + "é".repeat(35))).isEqualTo(EnumSet.of(PasswordViolation.TOO_LONG));
+        assertThat(PasswordPolicy.check("Aa1@" + "€".repeat(22))).isZero();
+        assertThat(violations("Aa1@" + "€".repeat(23))).isEqualTo(EnumSet.of(PasswordViolation.TOO_LONG));
+        assertThat(PasswordPolicy.check("Aa1@" + "😀".repeat(17))).isZero();
+        assertThat(violations("Aa1@" + "😀".repeat(18))).isEqualTo(EnumSet.of(PasswordViolation.TOO_LONG));
+    }
+
+    @Test
+    void rejectsOversizedInputBeforeScanning() {
+        assertThat(violations(" ".repeat(10_000))).isEqualTo(EnumSet.of(PasswordViolation.TOO_LONG));
+    }
+
+    @Test
+    void agreesWithTheLegacyRegexWithinTheByteLimit() {
+        List<String> samples = List.of("", "Passw0rd@", "Pa0@xyz", "Pa0@xyzw", "password1@", "PASSWORD1@",
+                "Password@@", "Password12", "Pass w0rd@", "Pass\tw0rd@", "Passw0rd@\n", "\nPassw0rd@",
+                "Pass\u0085w0rd@", "Pass\u2028w0rd@", "Pass\u00A0w0rd@", "Pässw0rd@", "ÑANDÚ1@çéñ",
+                "Ab1@😀😀😀", "Ab1@😀😀😀😀",
+                "Aa1@" + "x".repeat(68), "Aa1@" + "é".repeat(34), "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa!",
+                "=+&^%$#@Zz9", "Passw0rd=\r");
+        for (String sample : samples) {
+            assertThat(ValidationHelper.validatePassword(sample)).isEqualTo(LEGACY.matcher(sample).matches());
+        }
+    }
+
+    private static Set<PasswordViolation> violations(String password) {
+        return PasswordPolicy.violations(PasswordPolicy.check(password));
+    }
+}
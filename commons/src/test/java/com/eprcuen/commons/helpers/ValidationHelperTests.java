@@ -0,0 +1,42 @@
+package com.eprcuen.commons.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationHelperTests {
+    private static final Pattern LEGACY_EMAIL =
+            Pattern.compile("^[_A-Za-z0-9-+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
+
+    @Test
+    void validatesEmails() {
+        assertThat(ValidationHelper.validateEmail("john.doe@mail.example.com")).isTrue();
+        assertThat(ValidationHelper.validateEmail("john+tag@example.io")).isTrue();
+        assertThat(ValidationHelper.validateEmail("john.doe@example")).isFalse();
+        assertThat(ValidationHelper.validateEmail("john..doe@example.com")).isFalse();
+        assertThat(ValidationHelper.validateEmail("@example.com")).isFalse();
+        assertThat(ValidationHelper.validateEmail("john doe@example.com")).isFalse();
+    }
+
+    @Test
+    void rejectsEmailsLongerThanTheLimit() {
+        String domain = "@example.com";
+        String longest = "a".repeat(ValidationHelper.MAX_EMAIL_LENGTH - domain.length()) + domain;
+
+        assertThat(ValidationHelper.validateEmail(longest)).isTrue();
+        assertThat(ValidationHelper.validateEmail("a" + longest)).isFalse();
+    }
+
+    @Test
+    void agreesWithTheLegacyEmailRegexWithinTheLengthLimit() {
+        List<String> samples = List.of("john.doe@mail.example.com", "john+tag@example.io", "john_doe-1@ex-ample.com",
+                "john.doe@example", "john..doe@example.com", "@example.com", "john@.com", "john@example.c",
+                "jöhn@example.com", "john@example.com.", "john@example.123");
+        for (String sample : samples) {
+            assertThat(ValidationHelper.validateEmail(sample)).isEqualTo(LEGACY_EMAIL.matcher(sample).matches());
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.eprcuen.notificationservice.configs;
 
+import com.eprcuen.commons.codec.BinaryEventDeserializer;
+import com.eprcuen.commons.codec.BinaryEventSerializer;
+import com.eprcuen.commons.codec.EventFormat;
+import com.eprcuen.notificationservice.consumers.PartitionDispatcher;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -11,14 +15,17 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 import reactor.kafka.receiver.ReceiverOptions;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 /**
  * Kafka configuration class for setting up producer and consumer factories,
@@ -46,6 +53,14 @@ public class KafkaConfig {
     private String bootstrapServers;
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
+    @Value("${application.kafka.codec:JSON}")
+    private EventFormat codec;
+    @Value("${application.notification.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${application.notification.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+    @Value("${application.notification.batch.max-records:100}")
+    private int batchMaxRecords;
 
 
    /**
@@ -57,8 +72,7 @@ public class KafkaConfig {
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
                 StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, this.valueSerializer());
         props.put(ProducerConfig.ACKS_CONFIG,"all");
         props.put(ProducerConfig.RETRIES_CONFIG, 3);
         props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
@@ -82,7 +96,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -107,7 +121,7 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, this.valueSerializer());
         return new DefaultKafkaProducerFactory<>(props);
     }
 
@@ -130,20 +144,54 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     /**
      * Kafka Listener Container Factory Bean
+     * Records are acknowledged manually once processed. In virtual-thread mode they are acknowledged
+     * out of order from the worker threads, so acks are async and the container commits each offset
+     * only when every earlier record of the partition has been acknowledged.
+     * PartitionDispatcher retries and dead-letters failed records itself; it only throws when a record could
+     * not be dead-lettered either, and the error handler then delivers that record again until it has been
+     * delivered application.notification.max-deliveries times, when the dispatcher skips it.
      */
     @Bean
-    ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(){
+    ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(PartitionDispatcher partitionDispatcher){
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(virtualThreads);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(partitionDispatcher::skip,
+                new FixedBackOff(retryBackoffMs, partitionDispatcher.getMaxDeliveries() - 1L)));
         return factory;
     }
+
+    /**
+     * Batch Kafka Listener Container Factory Bean
+     * Hands every poll of up to application.notification.batch.max-records records to the listener,
+     * which acknowledges the whole batch once it has been handled.
+     */
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<String, Object> batchListenerContainerFactory(){
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchMaxRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+
+    /**
+     * Value serializer for the configured event format; consumers always accept both formats.
+     */
+    private Class<?> valueSerializer() {
+        return codec == EventFormat.BINARY ? BinaryEventSerializer.class : JsonSerializer.class;
+    }
 }
@@ -23,9 +23,16 @@ public class MailConfig {
     private String email;
     @Value("${spring.mail.password}")
     private String password;
+    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:5000}")
+    private int connectionTimeout;
+    @Value("${spring.mail.properties.mail.smtp.timeout:5000}")
+    private int timeout;
+    @Value("${spring.mail.properties.mail.smtp.writetimeout:5000}")
+    private int writeTimeout;
 
     /**
      * Creates a JavaMailSender bean configured with Gmail SMTP settings.
+     * Socket timeouts bound how long a stalled SMTP server can hold a sending thread.
      *
      * @return JavaMailSender instance configured for Gmail.
      */
@@ -41,6 +48,9 @@ public class MailConfig {
         props.put("mail.transport.protocol", "smtp");
         props.put("mail.smtp.auth", "true");
         props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.connectiontimeout", connectionTimeout);
+        props.put("mail.smtp.timeout", timeout);
+        props.put("mail.smtp.writetimeout", writeTimeout);
         props.put("mail.debug", "true");
         return mailSender;
     }
@@ -0,0 +1,237 @@
+package com.eprcuen.notificationservice.consumers;
+
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.commons.models.HighMsg;
+import com.eprcuen.notificationservice.services.contracts.MailSender;
+import com.eprcuen.notificationservice.utils.templates.TemplateRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Batch consumer for user registration messages, enabled by application.notification.batch.enabled.
+ * Every poll of the "user-topic" Kafka topic is handled as one batch: all the activation emails are
+ * rendered and delivered over a single SMTP connection. Failures are tracked per record; only the
+ * failed records are sent again, up to application.notification.batch.retries times, and the ones
+ * that still fail are published to "user-topic.DLT" through DeadLetterPublisher.
+ * Publishing a dead letter is retried on its own, for the records whose publish failed only.
+ * The batch is acknowledged once every record has been sent or dead-lettered. If some dead letters still
+ * cannot be written, the batch is nacked from the first of them: the records before it are committed and
+ * the rest are delivered again. A record that has been delivered application.notification.max-deliveries times
+ * without being dead-lettered is given up through PartitionDispatcher.skip instead, so the partition does not
+ * stall while the dead-letter topic is down. The positions of the last
+ * application.notification.batch.handled-cache-size records sent or dead-lettered are remembered, so a
+ * redelivered record that was already handled is skipped instead of emailed twice, and so are the delivery
+ * counts of the records waiting to be dead-lettered.
+ * Batches run on the listener thread; the virtual-thread mode only applies to AddUserConsumer.
+ *
+ * @author caito
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "application.notification.batch.enabled", havingValue = "true")
+public class AddUserBatchConsumer {
+    private static final StructuredLogger log = StructuredLogger.of(AddUserBatchConsumer.class);
+    private final MailSender mailSender;
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final PartitionDispatcher partitionDispatcher;
+    private final String activationUrl;
+    private final int retries;
+    private final long retryBackoffMs;
+    private final Set<String> handled;
+    private final Map<String, Integer> deliveries;
+    private final DistributionSummary batchSize;
+    private final Timer endToEndTimer;
+    private final Timer processTimer;
+
+    public AddUserBatchConsumer(MailSender mailSender,
+                                DeadLetterPublisher deadLetterPublisher,
+                                PartitionDispatcher partitionDispatcher,
+                                TemplateRegistry templateRegistry,
+                                MeterRegistry meterRegistry,
+                                @Value("${application.activation-url}") String activationUrl,
+                                @Value("${application.notification.batch.retries:2}") int retries,
+                                @Value("${application.notification.batch.retry-backoff-ms:1000}") long retryBackoffMs,
+                                @Value("${application.notification.batch.handled-cache-size:10000}") int handledCacheSize) {
+        templateRegistry.check(AddUserConsumer.TEMPLATE, AddUserConsumer.TEMPLATE_VARIABLES);
+        this.mailSender = mailSender;
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.partitionDispatcher = partitionDispatcher;
+        this.activationUrl = activationUrl;
+        this.retries = retries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.handled = Collections.synchronizedSet(Collections.newSetFromMap(boundedMap(handledCacheSize)));
+        this.deliveries = Collections.synchronizedMap(boundedMap(handledCacheSize));
+        this.batchSize = DistributionSummary.builder("notification.consumer.batch.size")
+                .description("Records received per poll")
+                .register(meterRegistry);
+        this.endToEndTimer = Timer.builder("notification.activation.latency")
+                .description("Time from the creation of a user to its activation email being sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("notification.consumer.batch.process")
+                .description("Time to process a batch of records")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Listens to the "user-topic" Kafka topic and sends the activation emails of a whole poll.
+     *
+     * @param records the records of the poll
+     * @param ack     acknowledges the batch once every record has been sent or dead-lettered, or nacks it
+     *                from the first record that could not be dead-lettered
+     * @throws InterruptedException if the thread is interrupted while waiting to retry
+     */
+    @KafkaListener(topics = "user-topic", groupId = "add-user-group", containerFactory = "batchListenerContainerFactory")
+    public void addUsersHandler(List<ConsumerRecord<String, HighMsg>> records, Acknowledgment ack) throws InterruptedException {
+        Timer.Sample sample = Timer.start();
+        batchSize.record(records.size());
+        Map<ConsumerRecord<String, HighMsg>, Exception> failures = new HashMap<>();
+        List<ConsumerRecord<String, HighMsg>> pending = new ArrayList<>();
+        for (ConsumerRecord<String, HighMsg> record : records) {
+            if (handled.contains(position(record))) {
+                continue;
+            }
+            if (record.value() == null) {
+                failures.put(record, new IllegalArgumentException("Record has no HighMsg value"));
+            } else {
+                pending.add(record);
+            }
+        }
+        for (int attempt = 0; attempt <= retries && !pending.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(retryBackoffMs);
+            }
+            Map<Integer, Exception> failed = mailSender.sendEmailsWithTemplate(pending.stream()
+                    .map(record -> AddUserConsumer.activationEmail(record.value(), activationUrl))
+                    .toList());
+            List<ConsumerRecord<String, HighMsg>> retry = new ArrayList<>(failed.size());
+            for (int i = 0; i < pending.size(); i++) {
+                ConsumerRecord<String, HighMsg> record = pending.get(i);
+                Exception failure = failed.get(i);
+                if (failure == null) {
+                    failures.remove(record);
+                    handled.add(position(record));
+                    this.recordLatency(record.value());
+                } else {
+                    failures.put(record, failure);
+                    retry.add(record);
+                }
+            }
+            pending = retry;
+        }
+        if (!failures.isEmpty()) {
+            log.error("Activation emails failed, publishing them to " + DeadLetterPublisher.DEAD_LETTER_TOPIC,
+                    "failed", failures.size(), "batch", records.size());
+        }
+        List<Integer> unpublished = new ArrayList<>(failures.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (failures.containsKey(records.get(i))) {
+                unpublished.add(i);
+            }
+        }
+        for (int attempt = 0; attempt <= retries && !unpublished.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(retryBackoffMs);
+            }
+            List<CompletableFuture<?>> letters = unpublished.stream()
+                    .<CompletableFuture<?>>map(index -> this.deadLetter(records.get(index),
+                            failures.get(records.get(index))))
+                    .toList();
+            List<Integer> retry = new ArrayList<>();
+            for (int i = 0; i < unpublished.size(); i++) {
+                ConsumerRecord<String, HighMsg> record = records.get(unpublished.get(i));
+                try {
+                    letters.get(i).join();
+                    handled.add(position(record));
+                    deliveries.remove(position(record));
+                } catch (RuntimeException e) {
+                    log.error("Error publishing record to " + DeadLetterPublisher.DEAD_LETTER_TOPIC,
+                            "record", position(record), e);
+                    retry.add(unpublished.get(i));
+                }
+            }
+            unpublished = retry;
+        }
+        unpublished = this.giveUpExhausted(records, unpublished, failures);
+        if (unpublished.isEmpty()) {
+            ack.acknowledge();
+        } else {
+            int first = unpublished.get(0);
+            log.error("Dead letters could not be written, delivering the batch again from the first of them",
+                    "unpublished", unpublished.size(), "record", position(records.get(first)));
+            ack.nack(first, Duration.ofMillis(retryBackoffMs));
+        }
+        sample.stop(processTimer);
+    }
+
+    /**
+     * Counts one more delivery of every record that could not be dead-lettered and skips the ones that have
+     * been delivered application.notification.max-deliveries times.
+     *
+     * @param records     the records of the poll
+     * @param unpublished the indexes of the records that could not be dead-lettered, in ascending order
+     * @param failures    the failure of every record that could not be sent
+     * @return the indexes of the records to deliver again, in ascending order
+     */
+    private List<Integer> giveUpExhausted(List<ConsumerRecord<String, HighMsg>> records, List<Integer> unpublished,
+                                          Map<ConsumerRecord<String, HighMsg>, Exception> failures) {
+        List<Integer> remaining = new ArrayList<>(unpublished.size());
+        for (int index : unpublished) {
+            ConsumerRecord<String, HighMsg> record = records.get(index);
+            String position = position(record);
+            if (deliveries.merge(position, 1, Integer::sum) >= partitionDispatcher.getMaxDeliveries()) {
+                partitionDispatcher.skip(record, failures.get(record));
+                deliveries.remove(position);
+                handled.add(position);
+            } else {
+                remaining.add(index);
+            }
+        }
+        return remaining;
+    }
+
+    private CompletableFuture<?> deadLetter(ConsumerRecord<String, HighMsg> record, Exception error) {
+        try {
+            return deadLetterPublisher.publish(record, error);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <V> Map<String, V> boundedMap(int maximumSize) {
+        return new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    private static String position(ConsumerRecord<String, HighMsg> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    private void recordLatency(HighMsg msg) {
+        if (msg.getCreatedAt() != null) {
+            endToEndTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - msg.getCreatedAt())));
+        }
+    }
+}
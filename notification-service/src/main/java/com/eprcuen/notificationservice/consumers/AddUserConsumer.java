@@ -1,44 +1,113 @@
 package com.eprcuen.notificationservice.consumers;
 
+import com.eprcuen.commons.logs.StructuredLogger;
 import com.eprcuen.commons.models.HighMsg;
 import com.eprcuen.notificationservice.services.contracts.MailSender;
-import lombok.RequiredArgsConstructor;
+import com.eprcuen.notificationservice.utils.templates.TemplateRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Consumer for user registration messages.
  * This class listens to the "user-topic" Kafka topic and processes incoming HighMsg messages.
  * It sends an email to the user with an activation link.
+ * Processing time is recorded in notification.consumer.process, and the time from the creation of the user
+ * to the email being sent in notification.activation.latency (subject to clock skew between the services).
+ * Records are processed through PartitionDispatcher, on virtual threads when that mode is enabled, and
+ * acknowledged once their email has been sent or, after its retries, they have been dead-lettered.
+ * AddUserBatchConsumer replaces it when application.notification.batch.enabled is set.
+ * The activation template is checked at startup against the values filled by {@link #activationEmail}.
  *
  * @author eprcuen
  *
  */
 @Component
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "application.notification.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class AddUserConsumer {
+    private static final StructuredLogger log = StructuredLogger.of(AddUserConsumer.class);
+    static final String SUBJECT = "Account Activation - No Reply";
+    static final String TEMPLATE = "templates/activate_account.html";
+    static final Set<String> TEMPLATE_VARIABLES = Set.of("name", "token", "link");
     private final MailSender mailSender;
+    private final PartitionDispatcher dispatcher;
+    private final MeterRegistry meterRegistry;
+    private final String activationUrl;
+    private final Timer endToEndTimer;
+
+    public AddUserConsumer(MailSender mailSender,
+                           PartitionDispatcher dispatcher,
+                           TemplateRegistry templateRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${application.activation-url}") String activationUrl) {
+        templateRegistry.check(TEMPLATE, TEMPLATE_VARIABLES);
+        this.mailSender = mailSender;
+        this.dispatcher = dispatcher;
+        this.meterRegistry = meterRegistry;
+        this.activationUrl = activationUrl;
+        this.endToEndTimer = Timer.builder("notification.activation.latency")
+                .description("Time from the creation of a user to its activation email being sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     /**
      * Listens to the "user-topic" Kafka topic and processes HighMsg messages.
      * When a new user is registered, it sends an email with an activation link.
      *
-     * @param msg the HighMsg message received from the Kafka topic
+     * @param record the record with the HighMsg message received from the Kafka topic
+     * @param ack    acknowledges the record once the email has been sent
      */
     @KafkaListener(topics = "user-topic", groupId = "add-user-group")
-    public void AddUserHandler(HighMsg msg){
-        //System.out.println("Received message: " + msg);
-        System.out.println("Received message: " + msg.getEmail() + " " + msg.getUsername() + " "
-                + msg.getValidationToken());
+    public void AddUserHandler(ConsumerRecord<String, HighMsg> record, Acknowledgment ack){
+        dispatcher.dispatch(record, () -> this.process(record.value()), ack::acknowledge);
+    }
+
+    private void process(HighMsg msg){
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            log.debug("--> sending activation email", "username", msg.getUsername());
+            MailSender.TemplatedEmail mail = activationEmail(msg, activationUrl);
+            mailSender.sendEmailWithTemplate(mail.to(), mail.subject(), mail.templateName(), mail.data());
+            outcome = "success";
+            if (msg.getCreatedAt() != null) {
+                endToEndTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - msg.getCreatedAt())));
+            }
+        } finally {
+            sample.stop(Timer.builder("notification.consumer.process")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Builds the activation email of a registered user.
+     *
+     * @param msg           the HighMsg of the user
+     * @param activationUrl the activation endpoint, the token is appended to it
+     * @return the templated activation email
+     */
+    static MailSender.TemplatedEmail activationEmail(HighMsg msg, String activationUrl) {
         Map<String, String> data = new HashMap<>();
         data.put("name", msg.getUsername());
         data.put("token", msg.getValidationToken());
-        mailSender.sendEmailWithTemplate(new String[]{msg.getEmail()},
-                "Account Activation - No Reply",
-                "templates/activate_account.html",
-                data);
+        if (msg.getValidationToken() != null) {
+            data.put("link", activationUrl + URLEncoder.encode(msg.getValidationToken(), StandardCharsets.UTF_8));
+        }
+        return new MailSender.TemplatedEmail(new String[]{msg.getEmail()}, SUBJECT, TEMPLATE, data);
     }
 }
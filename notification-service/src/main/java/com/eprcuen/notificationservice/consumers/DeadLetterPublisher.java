@@ -0,0 +1,53 @@
+package com.eprcuen.notificationservice.consumers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes the records whose activation email could not be sent to "user-topic.DLT", with the
+ * standard dead-letter headers (original topic, partition and offset, exception class and message),
+ * and counts them in notification.consumer.dead.lettered.
+ *
+ * @author caito
+ *
+ */
+@Component
+public class DeadLetterPublisher {
+    public static final String DEAD_LETTER_TOPIC = "user-topic.DLT";
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Counter deadLettered;
+
+    public DeadLetterPublisher(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLettered = Counter.builder("notification.consumer.dead.lettered")
+                .description("Records published to the dead-letter topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes a record to the dead-letter topic.
+     *
+     * @param record the record that failed
+     * @param error  the last failure of the record
+     * @return completes once the broker has acknowledged the dead letter, or exceptionally if it could not be written
+     */
+    public CompletableFuture<?> publish(ConsumerRecord<String, ?> record, Exception error) {
+        ProducerRecord<String, Object> letter = new ProducerRecord<>(DEAD_LETTER_TOPIC, record.key(), record.value());
+        letter.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array())
+                .add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array())
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, error.getClass().getName().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, String.valueOf(error.getMessage()).getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(letter).thenRun(deadLettered::increment);
+    }
+}
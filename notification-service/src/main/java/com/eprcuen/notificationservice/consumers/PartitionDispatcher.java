@@ -0,0 +1,234 @@
+package com.eprcuen.notificationservice.consumers;
+
+import com.eprcuen.commons.logs.StructuredLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the processing of Kafka records on virtual threads when application.notification.virtual-threads.enabled
+ * is set, so a slow SMTP conversation no longer holds the listener thread of its partition.
+ * At most application.notification.virtual-threads.max-in-flight-per-partition records of the same
+ * partition run at once; the listener thread blocks when a partition is full, which keeps the consumer
+ * from fetching ahead of what can be delivered. When the mode is disabled the task runs on the listener thread.
+ * A failed task is run again up to application.notification.retries times, application.notification.retry-backoff-ms
+ * apart, and then published to the dead-letter topic through DeadLetterPublisher. The record is acknowledged
+ * only once its task has succeeded or it has been dead-lettered, and the container (with async acks) only
+ * commits an offset once every record before it has been acknowledged, so a failed email is not lost while
+ * the dead-letter topic is down. A record is delivered at most application.notification.max-deliveries times;
+ * after that it is skipped and counted, so the partition does not stall behind it forever.
+ * On JDK 21 Jakarta Mail's synchronized transport methods pin the carrier thread during the SMTP
+ * conversation; the mode pays off on JDK 24 and later, where synchronized no longer pins.
+ *
+ * @author caito
+ *
+ */
+@Component
+public class PartitionDispatcher implements DisposableBean {
+    private static final StructuredLogger log = StructuredLogger.of(PartitionDispatcher.class);
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final boolean enabled;
+    private final int maxInFlightPerPartition;
+    private final int retries;
+    private final long retryBackoffMs;
+    private final int maxDeliveries;
+    private final ExecutorService executor;
+    private final Map<TopicPartition, Semaphore> permits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger unacked = new AtomicInteger();
+    private final Counter skipped;
+
+    public PartitionDispatcher(DeadLetterPublisher deadLetterPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${application.notification.virtual-threads.enabled:false}") boolean enabled,
+                               @Value("${application.notification.virtual-threads.max-in-flight-per-partition:100}") int maxInFlightPerPartition,
+                               @Value("${application.notification.retries:2}") int retries,
+                               @Value("${application.notification.retry-backoff-ms:1000}") long retryBackoffMs,
+                               @Value("${application.notification.max-deliveries:10}") int maxDeliveries) {
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.enabled = enabled;
+        this.maxInFlightPerPartition = maxInFlightPerPartition;
+        this.retries = retries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxDeliveries = maxDeliveries;
+        this.executor = enabled
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notification-", 0).factory())
+                : null;
+        Gauge.builder("notification.consumer.inflight", inFlight, AtomicInteger::get)
+                .description("Records being processed on virtual threads")
+                .register(meterRegistry);
+        Gauge.builder("notification.consumer.unacked", unacked, AtomicInteger::get)
+                .description("Records that could be neither processed nor dead-lettered, waiting to be delivered again")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("notification.consumer.skipped")
+                .description("Records skipped after every delivery failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return how many times a record is delivered before it is skipped
+     */
+    public int getMaxDeliveries() {
+        return maxDeliveries;
+    }
+
+    /**
+     * @return true when records are processed on virtual threads
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Processes a record, retrying and dead-lettering it when it fails, then acknowledges it.
+     * If the dead-letter topic cannot be written either, the record is not acknowledged: on the listener
+     * thread an exception is thrown so the container's error handler delivers the record again; on virtual
+     * threads, where the record cannot be nacked, the worker delivers it again itself after a back-off.
+     * Either way the record is skipped once it has been delivered application.notification.max-deliveries times.
+     *
+     * @param record      the record
+     * @param task        the processing of the record
+     * @param acknowledge acknowledges the record
+     */
+    public void dispatch(ConsumerRecord<String, ?> record, Runnable task, Runnable acknowledge) {
+        if (!enabled) {
+            if (!this.deliver(record, task)) {
+                throw new IllegalStateException("Record " + position(record) + " was neither processed nor dead-lettered");
+            }
+            acknowledge.run();
+            return;
+        }
+        Semaphore semaphore = permits.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                key -> new Semaphore(maxInFlightPerPartition));
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a free slot of "
+                    + record.topic() + "-" + record.partition(), e);
+        }
+        inFlight.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                this.redeliver(record, task, acknowledge);
+            } finally {
+                inFlight.decrementAndGet();
+                semaphore.release();
+            }
+        });
+    }
+
+    /**
+     * Delivers a record on a virtual thread until it succeeds or has been delivered maxDeliveries times,
+     * then acknowledges it. While it is being delivered again it is counted by the unacked gauge.
+     * An interrupted worker leaves the record unacknowledged, so it is delivered again after a restart.
+     */
+    private void redeliver(ConsumerRecord<String, ?> record, Runnable task, Runnable acknowledge) {
+        if (this.deliver(record, task)) {
+            acknowledge.run();
+            return;
+        }
+        unacked.incrementAndGet();
+        try {
+            for (int delivery = 2; delivery <= maxDeliveries; delivery++) {
+                if (!this.backOff()) {
+                    return;
+                }
+                if (this.deliver(record, task)) {
+                    acknowledge.run();
+                    return;
+                }
+            }
+            this.skip(record, new IllegalStateException("Record " + position(record)
+                    + " was neither processed nor dead-lettered"));
+            acknowledge.run();
+        } finally {
+            unacked.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gives up on a record that was delivered maxDeliveries times without being processed or dead-lettered.
+     * Also the recoverer of the listener container's error handler, where the cause is the last listener failure.
+     *
+     * @param record the record
+     * @param cause  the last failure
+     */
+    public void skip(ConsumerRecord<?, ?> record, Exception cause) {
+        skipped.increment();
+        log.error("Record failed every delivery, skipping it",
+                "record", position(record), "maxDeliveries", maxDeliveries, cause);
+    }
+
+    /**
+     * Runs the task of a record, then publishes the record to the dead-letter topic if every attempt failed.
+     *
+     * @return true when the task succeeded or the record was dead-lettered
+     */
+    private boolean deliver(ConsumerRecord<String, ?> record, Runnable task) {
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0 && !this.backOff()) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Error processing record", "record", position(record), "attempt", attempt + 1);
+            }
+        }
+        log.error("Error processing record, publishing it to " + DeadLetterPublisher.DEAD_LETTER_TOPIC,
+                "record", position(record), failure);
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0 && !this.backOff()) {
+                return false;
+            }
+            try {
+                deadLetterPublisher.publish(record, failure).join();
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Error publishing record to " + DeadLetterPublisher.DEAD_LETTER_TOPIC,
+                        "record", position(record), e);
+            }
+        }
+        return false;
+    }
+
+    private boolean backOff() {
+        try {
+            Thread.sleep(retryBackoffMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String position(ConsumerRecord<?, ?> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    /**
+     * Waits for the records in flight to finish.
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.eprcuen.notificationservice.services.contracts;
 
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Interface for sending emails.
- * Provides methods to send simple emails, emails with attachments, and templated emails.
+ * Provides methods to send simple emails, emails with attachments, and templated emails, one by one
+ * or in batches over a single connection.
  * This interface can be implemented by various email service providers.
  *
  * @author caito
@@ -16,4 +18,11 @@ public interface MailSender {
     void sendEmail(String[] to, String subject, String body);
     void sendEmailWithAttachment(String[] to, String subject, String body, File file);
     void sendEmailWithTemplate(String[] to, String subject, String templateName, Map<String, String> data);
+    Map<Integer, Exception> sendEmailsWithTemplate(List<TemplatedEmail> emails);
+
+    /**
+     * A templated email of a batch.
+     */
+    record TemplatedEmail(String[] to, String subject, String templateName, Map<String, String> data) {
+    }
 }
@@ -2,42 +2,81 @@ package com.eprcuen.notificationservice.services.impl;
 
 
 import com.eprcuen.commons.exceptions.EmailSendingException;
-import com.eprcuen.commons.exceptions.FileIOException;
-import com.eprcuen.commons.logs.WriteLog;
+import com.eprcuen.commons.logs.StructuredLogger;
 import com.eprcuen.notificationservice.services.contracts.MailSender;
+import com.eprcuen.notificationservice.utils.templates.TemplateRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Implementation of the MailSender interface for sending emails.
  * This class uses JavaMailSender to send simple emails.
  * It handles exceptions related to email sending and logs errors.
+ * Template rendering and SMTP delivery are timed separately (notification.mail.render, notification.mail.send)
+ * and failures are counted per stage in notification.mail.failures.
+ * Templates come precompiled from the TemplateRegistry.
+ * Batches are rendered first and then delivered over a single SMTP connection, timed in notification.mail.send.batch.
  *
  * @author caito
  *
  */
 @Service
-@RequiredArgsConstructor
-@Slf4j
 public class MailSenderImpl implements MailSender {
+    private static final StructuredLogger log = StructuredLogger.of(MailSenderImpl.class);
     private final JavaMailSender mailSender;
-    @Value("${application.email}")
-    private String email;
+    private final TemplateRegistry templateRegistry;
+    private final String email;
     private final String ERROR_MESSAGE = "no se pudo enviar el e-mail";
     private final String ERROR_TEMPLATE = "no se pudo cargar el template";
+    private final Timer renderTimer;
+    private final Timer sendTimer;
+    private final Timer batchSendTimer;
+    private final Counter renderFailures;
+    private final Counter sendFailures;
+
+    public MailSenderImpl(JavaMailSender mailSender,
+                          TemplateRegistry templateRegistry,
+                          MeterRegistry meterRegistry,
+                          @Value("${application.email}") String email) {
+        this.mailSender = mailSender;
+        this.templateRegistry = templateRegistry;
+        this.email = email;
+        this.renderTimer = Timer.builder("notification.mail.render")
+                .description("Time to load and fill an email template")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("notification.mail.send")
+                .description("Time to deliver an email to the SMTP server")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSendTimer = Timer.builder("notification.mail.send.batch")
+                .description("Time to deliver a batch of emails over one SMTP connection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.renderFailures = Counter.builder("notification.mail.failures")
+                .tag("stage", "render")
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("notification.mail.failures")
+                .tag("stage", "send")
+                .register(meterRegistry);
+    }
 
     /**
      * Sends a simple email to the specified recipients.
@@ -55,9 +94,10 @@ public class MailSenderImpl implements MailSender {
             message.setTo(to);
             message.setSubject(subject);
             message.setText(body);
-            mailSender.send(message);
+            sendTimer.record(() -> mailSender.send(message));
         }catch (MailException e){
-            log.error(WriteLog.logError(ERROR_MESSAGE));
+            sendFailures.increment();
+            log.error(ERROR_MESSAGE, e);
             throw new EmailSendingException(ERROR_MESSAGE);
         }
     }
@@ -81,9 +121,10 @@ public class MailSenderImpl implements MailSender {
             helper.setSubject(subject);
             helper.setText(body);
             helper.addAttachment(file.getName(), file);
-            mailSender.send(message);
+            sendTimer.record(() -> mailSender.send(message));
         } catch (Exception e) {
-            log.error(WriteLog.logError(ERROR_MESSAGE));
+            sendFailures.increment();
+            log.error(ERROR_MESSAGE, e);
             throw new EmailSendingException(ERROR_MESSAGE);
         }
     }
@@ -99,38 +140,97 @@ public class MailSenderImpl implements MailSender {
      */
     @Override
     public void sendEmailWithTemplate(String[] to, String subject, String templateName, Map<String, String> data) {
-        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessage message;
         try {
-            MimeMessageHelper helper = new MimeMessageHelper(message, false, StandardCharsets.UTF_8.name());
-            helper.setFrom(email);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            String template = this.getTemplate(templateName);
-            for (Map.Entry<String, String> m : data.entrySet()) {
-                template = template.replace("${" + m.getKey() + "}", m.getValue());
-            }
-            helper.setText(template, true); // true indicates HTML content
-            mailSender.send(message);
+            message = this.render(to, subject, templateName, data);
         } catch (Exception e) {
-            log.error(WriteLog.logError(ERROR_TEMPLATE));
+            renderFailures.increment();
+            log.error(ERROR_TEMPLATE, e);
             throw new EmailSendingException(ERROR_TEMPLATE);
         }
+        try {
+            sendTimer.record(() -> mailSender.send(message));
+        } catch (Exception e) {
+            sendFailures.increment();
+            log.error(ERROR_MESSAGE, e);
+            throw new EmailSendingException(ERROR_MESSAGE);
+        }
     }
 
     /**
-     * Loads a template from the classpath and returns its content as a String.
+     * Sends a batch of templated emails.
+     * Every email is rendered first and the rendered ones are delivered
+     * with a single SMTP connection. A failure affects only its own email.
      *
-     * @param templateName Name of the template file to be loaded.
-     * @return Content of the template as a String.
-     * @throws FileIOException if there is an error while reading the template file.
+     * @param emails the emails to send
+     * @return the failures, keyed by the position of the failed email in the batch; empty when all were sent
      */
-    private String getTemplate(String templateName) {
-        ClassPathResource resource = new ClassPathResource(templateName);
+    @Override
+    public Map<Integer, Exception> sendEmailsWithTemplate(List<TemplatedEmail> emails) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(emails.size());
+        List<Integer> positions = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            TemplatedEmail mail = emails.get(i);
+            try {
+                messages.add(this.render(mail.to(), mail.subject(), mail.templateName(), mail.data()));
+                positions.add(i);
+            } catch (Exception e) {
+                renderFailures.increment();
+                failures.put(i, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+        int renderFailed = failures.size();
+        Timer.Sample send = Timer.start();
         try {
-            return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            log.error("--> ERROR: ".concat(ERROR_TEMPLATE));
-            throw new FileIOException(ERROR_TEMPLATE);
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.size(); i++) {
+                Exception failure = failed.get(messages.get(i));
+                if (failure != null) {
+                    failures.put(positions.get(i), failure);
+                }
+            }
+            if (failed.isEmpty()) {
+                positions.forEach(position -> failures.put(position, e));
+            }
+        } catch (MailException e) {
+            positions.forEach(position -> failures.put(position, e));
+        } finally {
+            send.stop(batchSendTimer);
+        }
+        int sendFailed = failures.size() - renderFailed;
+        if (sendFailed > 0) {
+            sendFailures.increment(sendFailed);
+            log.error(ERROR_MESSAGE, "failed", sendFailed, "batch", messages.size());
         }
+        return failures;
+    }
+
+    /**
+     * Builds an HTML message from a compiled template.
+     *
+     * @param to           Array of recipient email addresses.
+     * @param subject      Subject of the email.
+     * @param templateName Name of the template to be used.
+     * @param data         Map containing the value of every placeholder of the template.
+     * @return the message, ready to be sent
+     * @throws MessagingException if the message cannot be built
+     */
+    private MimeMessage render(String[] to, String subject, String templateName, Map<String, String> data)
+            throws MessagingException {
+        Timer.Sample render = Timer.start();
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, StandardCharsets.UTF_8.name());
+        helper.setFrom(email);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(templateRegistry.get(templateName).render(data), true); // true indicates HTML content
+        render.stop(renderTimer);
+        return message;
     }
 }
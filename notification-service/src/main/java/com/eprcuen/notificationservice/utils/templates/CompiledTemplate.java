@@ -0,0 +1,131 @@
+package com.eprcuen.notificationservice.utils.templates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CompiledTemplate is a template parsed into literal segments and ${name} placeholders.
+ * Rendering is a single pass that appends every literal and every HTML-escaped value to a StringBuilder
+ * reused per thread, instead of one full copy of the template per replaced key.
+ * The buffer is only reused on platform threads. PartitionDispatcher starts a virtual thread per record, so a
+ * thread-local buffer would be built and thrown away with every email; virtual threads get a builder sized
+ * for the template instead.
+ * A placeholder without a value fails the render instead of being left in the output.
+ *
+ * @author caito
+ */
+public final class CompiledTemplate {
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+    private final String name;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final Set<String> variables;
+    private final int literalLength;
+
+    private CompiledTemplate(String name, String[] literals, String[] placeholders) {
+        this.name = name;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        Set<String> names = new LinkedHashSet<>();
+        Collections.addAll(names, placeholders);
+        this.variables = Collections.unmodifiableSet(names);
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @param name    the name of the template, for error messages
+     * @param content the content of the template
+     * @return the compiled template
+     * @throws IllegalArgumentException if a placeholder is not closed or has no name
+     */
+    public static CompiledTemplate compile(String name, String content) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = content.indexOf("${", position)) >= 0) {
+            int end = content.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + start + " of template " + name);
+            }
+            String placeholder = content.substring(start + 2, end).trim();
+            if (placeholder.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at offset " + start + " of template " + name);
+            }
+            literals.add(content.substring(position, start));
+            placeholders.add(placeholder);
+            position = end + 1;
+        }
+        literals.add(content.substring(position));
+        return new CompiledTemplate(name, literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param data the value of every placeholder
+     * @return the rendered template
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public String render(Map<String, String> data) {
+        int capacity = literalLength + placeholders.length * 32;
+        StringBuilder out;
+        if (Thread.currentThread().isVirtual()) {
+            out = new StringBuilder(capacity);
+        } else {
+            out = BUFFER.get();
+            if (out.capacity() > MAX_RETAINED_CAPACITY) {
+                out = new StringBuilder();
+                BUFFER.set(out);
+            }
+            out.setLength(0);
+            out.ensureCapacity(capacity);
+        }
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            String value = data.get(placeholders[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for ${" + placeholders[i] + "} in template " + name);
+            }
+            appendEscaped(out, value);
+        }
+        out.append(literals[placeholders.length]);
+        return out.toString();
+    }
+
+    /**
+     * @return the names of the placeholders, in order of first appearance
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.eprcuen.notificationservice.utils.templates;
+
+import com.eprcuen.commons.exceptions.FileIOException;
+import com.eprcuen.commons.logs.StructuredLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TemplateRegistry compiles the email templates once and keeps them in memory.
+ * Every template matching application.templates.location is read and parsed when the registry is
+ * created, so a malformed template fails the startup. Templates are looked up by their classpath
+ * name (templates/activate_account.html); a name outside the location is compiled on first use.
+ * Callers declare the values they provide with {@link #check(String, Set)} at startup, so a
+ * placeholder nobody fills is reported before the first email instead of being sent as is.
+ *
+ * @author caito
+ *
+ */
+@Component
+public class TemplateRegistry {
+    private static final StructuredLogger log = StructuredLogger.of(TemplateRegistry.class);
+    private static final String ROOT = "templates/";
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    public TemplateRegistry(@Value("${application.templates.location:classpath*:templates/**/*.html}") String location) {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+                if (resource.isReadable()) {
+                    String path = resource.getURL().getPath();
+                    String name = path.substring(path.lastIndexOf("/" + ROOT) + 1);
+                    templates.put(name, compile(name, resource));
+                }
+            }
+        } catch (IOException e) {
+            throw new FileIOException("no se pudieron cargar los templates: " + e.getMessage());
+        }
+        templates.values().forEach(template -> log.info("--> template loaded", "name", template.getName(),
+                "placeholders", template.getVariables()));
+    }
+
+    /**
+     * Returns a compiled template.
+     *
+     * @param name the classpath name of the template
+     * @return the compiled template
+     * @throws FileIOException if the template cannot be read
+     */
+    public CompiledTemplate get(String name) {
+        return templates.computeIfAbsent(name, key -> compile(key, new ClassPathResource(key)));
+    }
+
+    /**
+     * Checks that the given values fill every placeholder of a template.
+     *
+     * @param name      the classpath name of the template
+     * @param variables the names of the values the caller provides
+     * @throws IllegalStateException if the template has placeholders without a value
+     */
+    public void check(String name, Set<String> variables) {
+        Set<String> missing = new TreeSet<>(this.get(name).getVariables());
+        missing.removeAll(variables);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Template " + name + " has placeholders without a value: " + missing);
+        }
+    }
+
+    private static CompiledTemplate compile(String name, Resource resource) {
+        try {
+            return CompiledTemplate.compile(name, resource.getContentAsString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new FileIOException("no se pudo cargar el template " + name);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.eprcuen.notificationservice.utils.templates;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTemplateTests {
+
+    @Test
+    void substitutesEveryPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "<p>Hola ${name}, tu codigo es ${ token }.</p>");
+
+        assertThat(template.render(Map.of("name", "Ana", "token", "abc")))
+                .isEqualTo("<p>Hola Ana, tu codigo es abc.</p>");
+    }
+
+    @Test
+    void substitutesARepeatedPlaceholderEveryTime() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "${a}-${b}-${a}");
+
+        assertThat(template.render(Map.of("a", "1", "b", "2"))).isEqualTo("1-2-1");
+        assertThat(template.getVariables()).containsExactly("a", "b");
+    }
+
+    @Test
+    void handlesPlaceholdersAtTheStartAndTheEnd() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "${greeting} world ${mark}");
+
+        assertThat(template.render(Map.of("greeting", "hello", "mark", "!"))).isEqualTo("hello world !");
+    }
+
+    @Test
+    void rendersATemplateThatIsOnlyAPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "${only}");
+
+        assertThat(template.render(Map.of("only", "value"))).isEqualTo("value");
+    }
+
+    @Test
+    void rendersATemplateWithoutPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "plain text");
+
+        assertThat(template.render(Map.of())).isEqualTo("plain text");
+        assertThat(template.getVariables()).isEmpty();
+    }
+
+    @Test
+    void escapesTheValues() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "<b>${name}</b>");
+
+        assertThat(template.render(Map.of("name", "<a href=\"x\">Tom & 'Jerry'</a>")))
+                .isEqualTo("<b>&lt;a href=&quot;x&quot;&gt;Tom &amp; &#39;Jerry&#39;&lt;/a&gt;</b>");
+    }
+
+    @Test
+    void failsWhenAPlaceholderHasNoValue() {
+        CompiledTemplate template = CompiledTemplate.compile("welcome", "Hola ${name}, ${token}");
+
+        assertThatThrownBy(() -> template.render(Map.of("name", "Ana")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("${token}")
+                .hasMessageContaining("welcome");
+    }
+
+    @Test
+    void rendersAgainAfterAFailedRender() {
+        CompiledTemplate template = CompiledTemplate.compile("t", "[${a}${b}]");
+
+        assertThatThrownBy(() -> template.render(Map.of("a", "1")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(template.render(Map.of("a", "1", "b", "2"))).isEqualTo("[12]");
+    }
+
+    @Test
+    void rejectsMalformedPlaceholders() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("t", "Hola ${name"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unclosed");
+        assertThatThrownBy(() -> CompiledTemplate.compile("t", "Hola ${ }"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Empty");
+    }
+}
@@ -0,0 +1,44 @@
+package com.eprcuen.notificationservice.utils.templates;
+
+import com.eprcuen.commons.exceptions.FileIOException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateRegistryTests {
+    private static final String ACTIVATE = "templates/activate_account.html";
+    private final TemplateRegistry registry = new TemplateRegistry("classpath*:templates/**/*.html");
+
+    @Test
+    void loadsTheTemplatesAtStartup() {
+        CompiledTemplate template = registry.get(ACTIVATE);
+
+        assertThat(template.getName()).isEqualTo(ACTIVATE);
+        assertThat(template.getVariables()).containsExactlyInAnyOrder("name", "link", "token");
+        assertThat(registry.get(ACTIVATE)).isSameAs(template);
+    }
+
+    @Test
+    void failsOnAnUnknownTemplate() {
+        assertThatThrownBy(() -> registry.get("templates/missing.html"))
+                .isInstanceOf(FileIOException.class)
+                .hasMessageContaining("templates/missing.html");
+    }
+
+    @Test
+    void acceptsValuesForEveryPlaceholder() {
+        assertThatCode(() -> registry.check(ACTIVATE, Set.of("name", "link", "token", "extra")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void reportsPlaceholdersWithoutAValue() {
+        assertThatThrownBy(() -> registry.check(ACTIVATE, Set.of("name")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[link, token]");
+    }
+}
@@ -0,0 +1,127 @@
+package com.eprcuen.userservice.api.filters;
+
+import com.eprcuen.userservice.configs.concurrency.ConcurrencyLimitProperties;
+import com.eprcuen.userservice.utils.concurrency.GradientLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConcurrencyLimitFilter sheds load on the UserRouter routes with one GradientLimiter per route.
+ * A request over its route limit fails fast with 503 and Retry-After. Writes are also shed while the
+ * in-flight requests of all routes exceed writeShare of the sum of the limits, which keeps the remaining
+ * capacity for reads. It runs as a WebFilter so the measured latency includes writing streamed bodies.
+ *
+ * @author caito
+ *
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "application.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter implements WebFilter {
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private final List<LimitedRoute> routes;
+    private final double writeShare;
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.writeShare = properties.writeShare();
+        this.routes = properties.routes().stream()
+                .map(route -> {
+                    String name = (route.method() == null ? "" : route.method() + " ") + route.path();
+                    var limiter = new GradientLimiter(properties.initialLimit(), properties.minLimit(),
+                            properties.maxLimit(), properties.smoothing(), properties.tolerance());
+                    Gauge.builder("concurrency.limit", limiter, GradientLimiter::limit)
+                            .tag("route", name)
+                            .register(meterRegistry);
+                    Gauge.builder("concurrency.inflight", limiter, GradientLimiter::inFlight)
+                            .tag("route", name)
+                            .register(meterRegistry);
+                    return new LimitedRoute(
+                            route.method() == null ? null : HttpMethod.valueOf(route.method()),
+                            parser.parse(route.path()),
+                            limiter,
+                            Counter.builder("concurrency.shed").tag("route", name).tag("reason", "limit")
+                                    .register(meterRegistry),
+                            Counter.builder("concurrency.shed").tag("route", name).tag("reason", "priority")
+                                    .register(meterRegistry));
+                })
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        LimitedRoute route = this.match(exchange, method);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        boolean read = HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+        if (!read && totalInFlight.get() >= writeShare * this.totalLimit()) {
+            route.shedByPriority().increment();
+            return this.shed(exchange);
+        }
+        if (!route.limiter().tryAcquire()) {
+            route.shedByLimit().increment();
+            return this.shed(exchange);
+        }
+        totalInFlight.incrementAndGet();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    totalInFlight.decrementAndGet();
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    route.limiter().release(System.nanoTime() - start, dropped);
+                });
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return response.setComplete();
+    }
+
+    private int totalLimit() {
+        int total = 0;
+        for (LimitedRoute route : routes) {
+            total += route.limiter().limit();
+        }
+        return total;
+    }
+
+    private LimitedRoute match(ServerWebExchange exchange, HttpMethod method) {
+        var path = exchange.getRequest().getPath().pathWithinApplication();
+        for (LimitedRoute route : routes) {
+            if ((route.method() == null || route.method().equals(method)) && route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private record LimitedRoute(HttpMethod method, PathPattern pattern, GradientLimiter limiter,
+                                Counter shedByLimit, Counter shedByPriority) {
+    }
+}
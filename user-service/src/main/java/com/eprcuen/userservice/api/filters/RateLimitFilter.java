@@ -0,0 +1,95 @@
+package com.eprcuen.userservice.api.filters;
+
+import com.eprcuen.userservice.configs.ratelimit.RateLimitProperties;
+import com.eprcuen.userservice.utils.ratelimit.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitFilter applies the application.rate-limit token buckets per route and client IP.
+ * Rejected requests get a 429 with Retry-After before reaching security or the handlers.
+ * The client IP is the remote address; behind a proxy set server.forward-headers-strategy
+ * so it reflects X-Forwarded-For.
+ *
+ * @author caito
+ *
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "application.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter implements WebFilter {
+    private static final String UNKNOWN_CLIENT = "unknown";
+    private final List<LimitedRoute> routes;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.routes = properties.routes().stream()
+                .map(route -> new LimitedRoute(
+                        route.method() == null ? null : HttpMethod.valueOf(route.method()),
+                        parser.parse(route.path()),
+                        new TokenBucketLimiter(route.capacity(), route.refillPerSecond(),
+                                properties.maximumClients(), properties.idleTimeout()),
+                        Counter.builder("ratelimit.rejected")
+                                .tag("route", (route.method() == null ? "" : route.method() + " ") + route.path())
+                                .register(meterRegistry)))
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        LimitedRoute route = this.match(exchange);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        long wait = route.limiter().tryAcquire(this.clientOf(exchange), System.nanoTime());
+        if (wait == 0) {
+            return chain.filter(exchange);
+        }
+        route.rejected().increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        return response.setComplete();
+    }
+
+    private LimitedRoute match(ServerWebExchange exchange) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        var path = exchange.getRequest().getPath().pathWithinApplication();
+        for (LimitedRoute route : routes) {
+            if ((route.method() == null || route.method().equals(method)) && route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientOf(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return UNKNOWN_CLIENT;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private record LimitedRoute(HttpMethod method, PathPattern pattern, TokenBucketLimiter limiter, Counter rejected) {
+    }
+}
@@ -1,16 +1,34 @@
 package com.eprcuen.userservice.api.handlers;
 
+import com.eprcuen.commons.exceptions.ConflictException;
+import com.eprcuen.commons.exceptions.NotFoundException;
+import com.eprcuen.commons.exceptions.ServiceUnavailableException;
+import com.eprcuen.commons.exceptions.TokenException;
 import com.eprcuen.userservice.api.models.requests.UserRequest;
+import com.eprcuen.userservice.api.models.responses.BulkUserResponse;
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.services.contracts.IdempotencyService;
+import com.eprcuen.userservice.services.contracts.UserListCache;
+import com.eprcuen.userservice.services.contracts.UserSearchService;
 import com.eprcuen.userservice.services.contracts.UserService;
+import com.eprcuen.userservice.utils.idempotency.RequestFingerprint;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Supplier;
+
 /**
  * UserHandler class handles incoming requests related to users.
- * It provides methods to retrieve all users and create a new user.
+ * It provides methods to retrieve all users, search users, create a new user, import users in bulk
+ * and activate accounts.
  *
  * @author eprcuen
  *
@@ -18,34 +36,189 @@ import reactor.core.publisher.Mono;
 @Component
 @RequiredArgsConstructor
 public class UserHandler {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int DEFAULT_SEARCH_SIZE = 10;
+    private static final int MAX_SEARCH_SIZE = 100;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
+    private final UserSearchService userSearchService;
+    private final UserListCache userListCache;
 
     /**
      * Handles the request to retrieve all users.
+     * Users are streamed straight from the database, as a JSON array or as NDJSON when the client
+     * accepts application/x-ndjson. When afterId or limit are present a single keyset page is returned.
+     * JSON responses are served from the listing cache with a strong ETag, and a request whose
+     * If-None-Match matches it is answered with 304 Not Modified.
      *
      * @param request the server request
      * @return a Mono containing the server response with the list of users
      */
     public Mono<ServerResponse> getAll(ServerRequest request) {
-        return userService.getAllUsers()
-                .collectList()
-                .flatMap(users -> ServerResponse.ok().bodyValue(users))
-                .switchIfEmpty(ServerResponse.noContent().build())
-                .onErrorResume(e -> ServerResponse.noContent().build());
+        Long afterId;
+        Integer limit;
+        try {
+            afterId = request.queryParam("afterId").map(Long::valueOf).orElse(null);
+            limit = request.queryParam("limit").map(Integer::valueOf).orElse(null);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("Invalid pagination parameters");
+        }
+        if (limit != null && limit <= 0) {
+            return ServerResponse.badRequest().bodyValue("Limit must be greater than zero");
+        }
+        Integer pageSize = afterId == null && limit == null
+                ? null
+                : Integer.valueOf(limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE));
+        Supplier<Flux<UserResponse>> users = () -> pageSize == null
+                ? userService.getAllUsers()
+                : userService.getUsersPage(afterId, pageSize);
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(users.get(), UserResponse.class);
+        }
+        return userListCache.get(afterId, pageSize, users)
+                .flatMap(listing -> switch (listing) {
+                    case UserListCache.Encoded encoded -> this.matches(request, encoded.etag())
+                            ? ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                                    .eTag(encoded.etag())
+                                    .cacheControl(CacheControl.noCache())
+                                    .build()
+                            : ServerResponse.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .eTag(encoded.etag())
+                                    .cacheControl(CacheControl.noCache())
+                                    .bodyValue(encoded.body());
+                    case UserListCache.Streamed streamed -> ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(streamed.users(), UserResponse.class);
+                });
+    }
+
+    /**
+     * Checks the If-None-Match header of the request against an entity tag, with weak comparison.
+     *
+     * @param request the server request
+     * @param etag    the quoted entity tag of the current representation
+     * @return true when the client already has the current representation
+     */
+    private boolean matches(ServerRequest request, String etag) {
+        for (String header : request.headers().header(HttpHeaders.IF_NONE_MATCH)) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fingerprints a creation request, to detect an idempotency key reused with a different request.
+     *
+     * @param user the request body
+     * @return the SHA-256 fingerprint of the canonical body
+     */
+    private String fingerprint(UserRequest user) {
+        return RequestFingerprint.of(user.getUsername(), user.getEmail(), user.getTelephone(),
+                user.getPassword(), user.getConfirmPassword());
+    }
+
+    /**
+     * Handles the request to search users by a prefix of their username or email.
+     * The search is answered from the in-memory index; while it is loading the response is a 503.
+     *
+     * @param request the server request containing the q and limit query parameters
+     * @return a Mono containing the server response with the matching users
+     */
+    public Mono<ServerResponse> search(ServerRequest request) {
+        String query = request.queryParam("q").map(String::trim).orElse("");
+        if (query.isEmpty()) {
+            return ServerResponse.badRequest().bodyValue("Query is required");
+        }
+        int limit;
+        try {
+            limit = request.queryParam("limit").map(Integer::parseInt).orElse(DEFAULT_SEARCH_SIZE);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("Invalid limit");
+        }
+        if (limit <= 0) {
+            return ServerResponse.badRequest().bodyValue("Limit must be greater than zero");
+        }
+        return userSearchService.search(query, Math.min(limit, MAX_SEARCH_SIZE))
+                .flatMap(users -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Flux.fromIterable(users), UserResponse.class))
+                .onErrorResume(ServiceUnavailableException.class, e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .bodyValue(e.getMessage()));
     }
 
     /**
      * Handles the request to create a new user.
+     * With an Idempotency-Key header the user is created once per key: retries of the same request
+     * get the response of the first one, and reusing the key with a different request is a 409.
      *
      * @param request the server request containing the user details
      * @return a Mono containing the server response with the created user
      */
     public Mono<ServerResponse> create(ServerRequest request) {
+        String idempotencyKey = request.headers().firstHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return ServerResponse.badRequest().bodyValue("Invalid Idempotency-Key");
+        }
         return request.bodyToMono(UserRequest.class)
-                .flatMap(userService::createUser)
+                .flatMap(user -> idempotencyKey == null
+                        ? userService.createUser(user)
+                        : idempotencyService.execute(idempotencyKey, this.fingerprint(user),
+                                () -> userService.createUser(user)))
                 .flatMap(userResponse -> ServerResponse.ok().bodyValue(userResponse))
                 .switchIfEmpty(ServerResponse.noContent().build())
+                .onErrorResume(ServiceUnavailableException.class, e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .bodyValue(e.getMessage()))
+                .onErrorResume(ConflictException.class, e -> ServerResponse.status(HttpStatus.CONFLICT)
+                        .bodyValue(e.getMessage()))
                 .onErrorResume(e -> ServerResponse.badRequest().bodyValue("Error creating User: "));
     }
 
+    /**
+     * Handles the request to import users in bulk.
+     * The body is read as NDJSON of user requests and one result per row is streamed back as NDJSON.
+     *
+     * @param request the server request containing the user details, one per line
+     * @return a Mono containing the server response with the result of every row
+     */
+    public Mono<ServerResponse> bulkCreate(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.importUsers(request.bodyToFlux(UserRequest.class)), BulkUserResponse.class);
+    }
+
+    /**
+     * Handles the request to activate an account with the token sent by email.
+     *
+     * @param request the server request containing the token query parameter
+     * @return a Mono containing the server response with the activated user
+     */
+    public Mono<ServerResponse> activate(ServerRequest request) {
+        return request.queryParam("token")
+                .filter(token -> !token.isBlank())
+                .map(token -> userService.activateUser(token)
+                        .flatMap(userResponse -> ServerResponse.ok().bodyValue(userResponse))
+                        .onErrorResume(NotFoundException.class, e -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                                .bodyValue(e.getMessage()))
+                        .onErrorResume(TokenException.class, e -> ServerResponse.badRequest()
+                                .bodyValue(e.getMessage())))
+                .orElseGet(() -> ServerResponse.badRequest().bodyValue("Token is required"));
+    }
+
 }
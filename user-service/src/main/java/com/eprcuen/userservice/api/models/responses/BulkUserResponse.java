@@ -0,0 +1,31 @@
+package com.eprcuen.userservice.api.models.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * BulkUserResponse class representing the result of one row of a bulk user import.
+ * Contains the line number of the row in the import, the email, the resulting status,
+ * the id of the created user and the validation errors when the row was rejected.
+ * Uses Lombok annotations for boilerplate code reduction.
+ *
+ * @author caito
+ *
+ */
+@NoArgsConstructor@AllArgsConstructor
+@Data@Builder
+public class BulkUserResponse implements Serializable {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    private long line;
+    private String email;
+    private String status;
+    private Long id;
+    private List<String> errors;
+}
@@ -3,6 +3,8 @@ package com.eprcuen.userservice.api.routers;
 import com.eprcuen.userservice.api.handlers.UserHandler;
 import com.eprcuen.userservice.api.models.requests.UserRequest;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -36,17 +38,48 @@ public class UserRouter {
                     path = PATH,
                     beanClass = UserHandler.class,
                     beanMethod = "getAll",
-                    produces = {"application/json"},
+                    produces = {"application/json", "application/x-ndjson"},
                     method = RequestMethod.GET,
                     operation = @Operation(
                             operationId = "getAll",
                             summary = "Get all suppliers",
+                            parameters = {
+                                    @Parameter(in = ParameterIn.QUERY, name = "afterId",
+                                            description = "Id of the last user of the previous page"),
+                                    @Parameter(in = ParameterIn.QUERY, name = "limit",
+                                            description = "Maximum number of users to return (max 1000)"),
+                                    @Parameter(in = ParameterIn.HEADER, name = "If-None-Match",
+                                            description = "ETag of a previous response; answered with 304 if unchanged")
+                            },
                             responses = {
                                     @ApiResponse(responseCode = "200", description = "Suppliers retrieved successfully"),
+                                    @ApiResponse(responseCode = "304", description = "Users did not change since the ETag sent in If-None-Match"),
                                     @ApiResponse(responseCode = "404", description = "No Suppliers found")
                             }
                     )
             ),
+            @RouterOperation(
+                    path = PATH + "/search",
+                    beanClass = UserHandler.class,
+                    beanMethod = "search",
+                    produces = {"application/json"},
+                    method = RequestMethod.GET,
+                    operation = @Operation(
+                            operationId = "search",
+                            summary = "Search users by a prefix of their username or email",
+                            parameters = {
+                                    @Parameter(in = ParameterIn.QUERY, name = "q", required = true,
+                                            description = "Prefix of the username or email, case insensitive"),
+                                    @Parameter(in = ParameterIn.QUERY, name = "limit",
+                                            description = "Maximum number of users to return (default 10, max 100)")
+                            },
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Matching users"),
+                                    @ApiResponse(responseCode = "400", description = "Query missing or invalid limit"),
+                                    @ApiResponse(responseCode = "503", description = "Search index is loading")
+                            }
+                    )
+            ),
             @RouterOperation(
                     path = PATH,
                     beanClass = UserHandler.class,
@@ -56,19 +89,66 @@ public class UserRouter {
                     operation = @Operation(
                             operationId = "create",
                             summary = "Create a new supplier",
+                            parameters = {
+                                    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+                                            description = "Client generated key; retries with the same key return the first result")
+                            },
                             responses = {
                                     @ApiResponse(responseCode = "200", description = "User created successfully"),
-                                    @ApiResponse(responseCode = "400", description = "Invalid request data")
+                                    @ApiResponse(responseCode = "400", description = "Invalid request data"),
+                                    @ApiResponse(responseCode = "409", description = "Idempotency-Key reused with a different request"),
+                                    @ApiResponse(responseCode = "503", description = "Password hashing backlog is full")
+                            },
+                            requestBody = @RequestBody(content = @Content(
+                                    schema = @Schema(implementation = UserRequest.class)
+                            ))
+                    )
+            ),
+            @RouterOperation(
+                    path = PATH + "/bulk",
+                    beanClass = UserHandler.class,
+                    beanMethod = "bulkCreate",
+                    consumes = {"application/x-ndjson"},
+                    produces = {"application/x-ndjson"},
+                    method = RequestMethod.POST,
+                    operation = @Operation(
+                            operationId = "bulkCreate",
+                            summary = "Import users in bulk from NDJSON",
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Result of every imported row")
                             },
                             requestBody = @RequestBody(content = @Content(
                                     schema = @Schema(implementation = UserRequest.class)
                             ))
                     )
             ),
+            @RouterOperation(
+                    path = PATH + "/activate",
+                    beanClass = UserHandler.class,
+                    beanMethod = "activate",
+                    produces = {"application/json"},
+                    method = RequestMethod.GET,
+                    operation = @Operation(
+                            operationId = "activate",
+                            summary = "Activate an account with the token sent by email",
+                            parameters = {
+                                    @Parameter(in = ParameterIn.QUERY, name = "token", required = true,
+                                            description = "Activation token")
+                            },
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "User activated successfully"),
+                                    @ApiResponse(responseCode = "400", description = "Token missing, expired or used"),
+                                    @ApiResponse(responseCode = "404", description = "Token not found")
+                            }
+                    )
+            ),
     })
     RouterFunction<ServerResponse> router(UserHandler handler){
     return RouterFunctions.route()
+            .POST(PATH + "/bulk", handler::bulkCreate)
             .POST(PATH, handler::create)
+            .GET(PATH + "/activate", handler::activate)
+            .GET(PATH + "/search", handler::search)
             .GET(PATH, handler::getAll)
             .build();
     }
@@ -0,0 +1,16 @@
+package com.eprcuen.userservice.configs.concurrency;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Concurrency limit configuration class.
+ * Enables binding of the routes and limiter settings used by ConcurrencyLimitFilter.
+ *
+ * @author caito
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+}
@@ -0,0 +1,35 @@
+package com.eprcuen.userservice.configs.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Adaptive concurrency limit settings bound from application.concurrency-limit.
+ * Every route gets its own gradient limiter between minLimit and maxLimit. Writes are only admitted while
+ * the in-flight requests of all routes stay under writeShare of the sum of their limits, so the rest of
+ * the capacity is kept for reads.
+ *
+ * @author caito
+ *
+ */
+@ConfigurationProperties(prefix = "application.concurrency-limit")
+public record ConcurrencyLimitProperties(@DefaultValue("true") boolean enabled,
+                                         @DefaultValue("20") int initialLimit,
+                                         @DefaultValue("4") int minLimit,
+                                         @DefaultValue("200") int maxLimit,
+                                         @DefaultValue("0.2") double smoothing,
+                                         @DefaultValue("1.5") double tolerance,
+                                         @DefaultValue("0.7") double writeShare,
+                                         @DefaultValue List<Route> routes) {
+
+    /**
+     * A limited route.
+     *
+     * @param method the HTTP method, or null for any method
+     * @param path   the path pattern
+     */
+    public record Route(String method, String path) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.eprcuen.userservice.configs.database;
+
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.userservice.utils.pool.AdaptiveAllocationStrategy;
+import com.eprcuen.userservice.utils.pool.TimedConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ConnectionPoolSizer periodically feeds the pool pressure to the AdaptiveAllocationStrategy.
+ * It is only active when application.r2dbc.pool.adaptive.enabled is true.
+ *
+ * @author caito
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "application.r2dbc.pool.adaptive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ConnectionPoolSizer {
+    private static final StructuredLogger log = StructuredLogger.of(ConnectionPoolSizer.class);
+    private final TimedConnectionFactory connectionFactory;
+    private final AdaptiveAllocationStrategy strategy;
+
+    /**
+     * Grows or shrinks the pool limit one step according to the pending acquires and idle connections.
+     */
+    @Scheduled(fixedDelayString = "${application.r2dbc.pool.adaptive.interval-ms:1000}")
+    public void resize() {
+        ((ConnectionPool) connectionFactory.unwrap()).getMetrics().ifPresent(this::resize);
+    }
+
+    private void resize(PoolMetrics metrics) {
+        int before = strategy.limit();
+        int after = strategy.adjust(metrics.pendingAcquireSize(), metrics.idleSize());
+        if (after != before) {
+            log.info("--> connection pool limit changed", "limit", after,
+                    "pending", metrics.pendingAcquireSize(), "idle", metrics.idleSize());
+        }
+    }
+}
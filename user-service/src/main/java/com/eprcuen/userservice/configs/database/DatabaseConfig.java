@@ -0,0 +1,98 @@
+package com.eprcuen.userservice.configs.database;
+
+import com.eprcuen.userservice.utils.pool.AdaptiveAllocationStrategy;
+import com.eprcuen.userservice.utils.pool.TimedConnectionFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Database configuration class for the R2DBC connection pool.
+ * Builds the ConnectionPool from the spring.r2dbc connection settings and the application.r2dbc.pool
+ * sizing, timeout, eviction and validation settings, and exposes it through a TimedConnectionFactory
+ * so acquire latency is recorded. Spring Boot binds the r2dbc.pool.* gauges (acquired, pending, idle,
+ * allocated) to the pool. With application.r2dbc.pool.adaptive.enabled the pool size limit is driven
+ * by an AdaptiveAllocationStrategy instead of max-size.
+ *
+ * @author caito
+ *
+ */
+@Configuration
+public class DatabaseConfig {
+    @Value("${spring.r2dbc.url}")
+    private String url;
+    @Value("${spring.r2dbc.username}")
+    private String username;
+    @Value("${spring.r2dbc.password}")
+    private String password;
+    @Value("${application.r2dbc.pool.initial-size:10}")
+    private int initialSize;
+    @Value("${application.r2dbc.pool.max-size:20}")
+    private int maxSize;
+    @Value("${application.r2dbc.pool.max-acquire-time:5s}")
+    private Duration maxAcquireTime;
+    @Value("${application.r2dbc.pool.max-create-connection-time:5s}")
+    private Duration maxCreateConnectionTime;
+    @Value("${application.r2dbc.pool.max-idle-time:10m}")
+    private Duration maxIdleTime;
+    @Value("${application.r2dbc.pool.max-life-time:30m}")
+    private Duration maxLifeTime;
+    @Value("${application.r2dbc.pool.background-eviction-interval:30s}")
+    private Duration backgroundEvictionInterval;
+    @Value("${application.r2dbc.pool.validation-query:SELECT 1}")
+    private String validationQuery;
+
+    /**
+     * Allocation strategy of the adaptive mode, bounded by application.r2dbc.pool.adaptive.min-size/max-size.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.r2dbc.pool.adaptive.enabled", havingValue = "true")
+    AdaptiveAllocationStrategy adaptiveAllocationStrategy(
+            @Value("${application.r2dbc.pool.adaptive.min-size:5}") int minSize,
+            @Value("${application.r2dbc.pool.adaptive.max-size:50}") int adaptiveMaxSize,
+            @Value("${application.r2dbc.pool.adaptive.step:2}") int step,
+            @Value("${application.r2dbc.pool.adaptive.pending-threshold:1}") int pendingThreshold,
+            MeterRegistry meterRegistry) {
+        var strategy = new AdaptiveAllocationStrategy(minSize, adaptiveMaxSize, maxSize, step, pendingThreshold);
+        Gauge.builder("r2dbc.pool.adaptive.limit", strategy, AdaptiveAllocationStrategy::limit)
+                .description("Current size limit of the adaptive connection pool")
+                .register(meterRegistry);
+        return strategy;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    TimedConnectionFactory connectionFactory(ObjectProvider<AdaptiveAllocationStrategy> adaptiveStrategy,
+                                             MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options))
+                .name("user-service")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .maxCreateConnectionTime(maxCreateConnectionTime)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .backgroundEvictionInterval(backgroundEvictionInterval)
+                .validationQuery(validationQuery);
+        AdaptiveAllocationStrategy strategy = adaptiveStrategy.getIfAvailable();
+        if (strategy != null) {
+            configuration.initialSize(Math.min(initialSize, strategy.permitMinimum()))
+                    .customizer(pool -> pool.allocationStrategy(strategy));
+        }
+        return new TimedConnectionFactory(new ConnectionPool(configuration.build()), meterRegistry);
+    }
+}
@@ -1,10 +1,11 @@
 package com.eprcuen.userservice.configs.kafka;
 
-import com.eprcuen.commons.models.HighMsg;
+import com.eprcuen.commons.codec.BinaryEventDeserializer;
+import com.eprcuen.commons.codec.BinaryEventSerializer;
+import com.eprcuen.commons.codec.EventFormat;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,10 +48,22 @@ public class KafkaConfig {
     private String bootstrapServers;
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
+    @Value("${application.kafka.producer.linger-ms:20}")
+    private int lingerMs;
+    @Value("${application.kafka.producer.batch-size:65536}")
+    private int batchSize;
+    @Value("${application.kafka.producer.compression:lz4}")
+    private String compression;
+    @Value("${application.kafka.producer.max-in-flight:256}")
+    private int maxInFlight;
+    @Value("${application.kafka.codec:JSON}")
+    private EventFormat codec;
 
 
    /**
      * Kafka Sender and Receiver Configuration
+     * Records are keyed by the user email and batched by the producer (linger.ms, batch.size,
+     * compression); maxInFlight bounds the records awaiting an ack before the sender applies backpressure.
     */
     @Bean
     SenderOptions<String, Object> senderOptions(){
@@ -58,12 +71,16 @@ public class KafkaConfig {
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,org.apache.kafka.common.serialization.
                 StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,org.springframework.kafka.support.serializer.
-                JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, this.valueSerializer());
         props.put(ProducerConfig.ACKS_CONFIG,"all");
         props.put(ProducerConfig.RETRIES_CONFIG, 3);
         props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return SenderOptions.create(props);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        return SenderOptions.<String, Object>create(props)
+                .maxInFlight(maxInFlight)
+                .stopOnError(false);
     }
 
     /*
@@ -83,7 +100,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -101,26 +118,8 @@ public class KafkaConfig {
     }
 
     /*
-     * Kafka Producer and Consumer Configuration
+     * Kafka Consumer Configuration
      */
-    @Bean
-    ProducerFactory<String, Object> producerFactory(){
-        Map<String, Object> props = new HashMap<>();
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
-    }
-
-    /**
-     * Kafka Template Bean
-     */
-    @Bean
-    KafkaTemplate<String, Object> kafkaTemplate(){
-        return new KafkaTemplate<>(producerFactory());
-    }
-
-
 
     /**
      * Kafka Consumer Factory and Listener Container Factory Configuration
@@ -131,7 +130,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         return new DefaultKafkaConsumerFactory<>(props);
     }
@@ -147,4 +146,24 @@ public class KafkaConfig {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         return factory;
     }
+
+    /**
+     * Kafka Listener Container Factory for broadcast topics, where every instance consumes every record
+     * with its own consumer group and offsets are committed automatically after each poll.
+     */
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<String, Object> broadcastListenerContainerFactory(){
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
+    /**
+     * Value serializer for the configured event format; consumers always accept both formats.
+     */
+    private Class<?> valueSerializer() {
+        return codec == EventFormat.BINARY ? BinaryEventSerializer.class : JsonSerializer.class;
+    }
 }
@@ -0,0 +1,16 @@
+package com.eprcuen.userservice.configs.ratelimit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rate limit configuration class.
+ * Enables binding of the per-route limits used by RateLimitFilter.
+ *
+ * @author caito
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+}
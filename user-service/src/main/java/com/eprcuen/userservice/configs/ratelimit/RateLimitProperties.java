@@ -0,0 +1,33 @@
+package com.eprcuen.userservice.configs.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Rate limit settings bound from application.rate-limit.
+ * Each route gives a token bucket per client IP: capacity requests in a burst,
+ * refilled at refillPerSecond. The first route matching the method and path pattern applies.
+ *
+ * @author caito
+ *
+ */
+@ConfigurationProperties(prefix = "application.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") int maximumClients,
+                                  @DefaultValue("10m") Duration idleTimeout,
+                                  @DefaultValue List<Route> routes) {
+
+    /**
+     * A rate limited route.
+     *
+     * @param method          the HTTP method, or null for any method
+     * @param path            the path pattern
+     * @param capacity        the bucket size, i.e. the allowed burst
+     * @param refillPerSecond the tokens added per second
+     */
+    public record Route(String method, String path, int capacity, double refillPerSecond) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.eprcuen.userservice.configs.web;
+
+import com.eprcuen.userservice.utils.json.UserResponseEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux configuration class.
+ * Registers UserResponseEncoder ahead of Jackson, so every UserResponse payload is written by the
+ * hand-written encoder, with a cache of encoded rows of application.json.row-cache.maximum-size
+ * users (0 disables it).
+ *
+ * @author caito
+ *
+ */
+@Configuration
+public class WebConfig implements WebFluxConfigurer {
+    private final MeterRegistry meterRegistry;
+    private final long rowCacheSize;
+
+    public WebConfig(MeterRegistry meterRegistry,
+                     @Value("${application.json.row-cache.maximum-size:100000}") long rowCacheSize) {
+        this.meterRegistry = meterRegistry;
+        this.rowCacheSize = rowCacheSize;
+    }
+
+    @Bean
+    UserResponseEncoder userResponseEncoder() {
+        if (rowCacheSize <= 0) {
+            return new UserResponseEncoder(null);
+        }
+        Cache<Long, UserResponseEncoder.EncodedRow> rows = Caffeine.newBuilder()
+                .maximumSize(rowCacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rows, "users.json.rows");
+        return new UserResponseEncoder(rows);
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(this.userResponseEncoder());
+    }
+}
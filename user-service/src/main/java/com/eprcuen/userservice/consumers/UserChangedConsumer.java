@@ -0,0 +1,42 @@
+package com.eprcuen.userservice.consumers;
+
+import com.eprcuen.commons.models.UserChangedMsg;
+import com.eprcuen.userservice.services.contracts.EmailRegistry;
+import com.eprcuen.userservice.services.contracts.UserLookupService;
+import com.eprcuen.userservice.services.contracts.UserSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumer for user change notifications.
+ * This class listens to the "user-changed-topic" Kafka topic with a consumer group unique to this
+ * instance, so every user-service instance receives every change, evicts its cached copies,
+ * updates its search index and adds the email to its Bloom filter of registered emails.
+ *
+ * @author caito
+ *
+ */
+@Component
+@RequiredArgsConstructor
+public class UserChangedConsumer {
+    private final UserLookupService userLookupService;
+    private final UserSearchService userSearchService;
+    private final EmailRegistry emailRegistry;
+
+    /**
+     * Listens to the "user-changed-topic" Kafka topic, evicts the changed user from the caches,
+     * refreshes it in the search index and registers its email.
+     *
+     * @param msg the UserChangedMsg message received from the Kafka topic
+     */
+    @KafkaListener(topics = "user-changed-topic",
+            groupId = "#{'user-service-changes-' + T(java.util.UUID).randomUUID()}",
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = "auto.offset.reset=latest")
+    public void userChangedHandler(UserChangedMsg msg){
+        userLookupService.evict(msg);
+        userSearchService.refresh(msg);
+        emailRegistry.register(msg.getEmail());
+    }
+}
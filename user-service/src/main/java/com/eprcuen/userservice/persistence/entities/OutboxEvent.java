@@ -0,0 +1,32 @@
+package com.eprcuen.userservice.persistence.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxEvent represents an event waiting to be published to the message broker.
+ * It is written in the same transaction as the data it describes and published later by the
+ * outbox relay, so an event is never lost nor published for a rolled back transaction.
+ * While a relay publishes it, claimedUntil holds the end of its lease.
+ * This entity is mapped to the "outbox" table in the database.
+ *
+ * @author caito
+ *
+ */
+@Table(name = "outbox")
+@NoArgsConstructor@AllArgsConstructor
+@Getter@Setter@Builder
+public class OutboxEvent {
+    @Id
+    private Long id;
+    private String topic;
+    private String eventKey;
+    private String eventType;
+    private String payload;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+    private LocalDateTime claimedUntil;
+}
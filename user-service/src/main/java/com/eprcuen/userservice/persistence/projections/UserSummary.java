@@ -0,0 +1,11 @@
+package com.eprcuen.userservice.persistence.projections;
+
+/**
+ * UserSummary is a read-only projection of the users table with the columns exposed by UserResponse.
+ * Read queries select straight into it, so the password hash and account flags are never loaded.
+ *
+ * @author caito
+ *
+ */
+public record UserSummary(Long id, String username, String email, String telephone, String role) {
+}
@@ -0,0 +1,54 @@
+package com.eprcuen.userservice.persistence.repositories;
+
+import com.eprcuen.userservice.persistence.entities.OutboxEvent;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository interface for managing OutboxEvent entities.
+ * It extends ReactiveCrudRepository to provide reactive data access methods,
+ * plus the queries used by the outbox relay to drain pending events.
+ *
+ * @author caito
+ *
+ */
+public interface OutboxRepository extends ReactiveCrudRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending events that are not claimed by a relay, skipping the rows another
+     * instance is claiming, so several instances can drain the outbox concurrently without publishing twice.
+     * An event is left out while any older event with the same topic and key is unsent, whether it is
+     * claimed, being claimed by a transaction that has not committed yet, or free, so only the oldest
+     * pending event of a key can be claimed and a key is only ever published by one relay at a time, in order.
+     */
+    @Query("SELECT o.* FROM outbox o WHERE o.sent_at IS NULL AND (o.claimed_until IS NULL OR o.claimed_until < :now)"
+            + " AND NOT EXISTS (SELECT 1 FROM outbox c WHERE c.sent_at IS NULL AND c.id < o.id"
+            + " AND c.topic = o.topic AND c.event_key <=> o.event_key)"
+            + " ORDER BY o.id LIMIT :limit FOR UPDATE OF o SKIP LOCKED")
+    Flux<OutboxEvent> lockPending(int limit, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE outbox SET claimed_until = :until WHERE id IN (:ids)")
+    Mono<Integer> claim(Collection<Long> ids, LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE outbox SET claimed_until = NULL WHERE id IN (:ids) AND sent_at IS NULL")
+    Mono<Integer> release(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE outbox SET sent_at = :sentAt, claimed_until = NULL WHERE id IN (:ids)")
+    Mono<Integer> markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("DELETE FROM outbox WHERE sent_at < :before")
+    Mono<Integer> deleteSentBefore(LocalDateTime before);
+
+    @Query("SELECT COUNT(*) FROM outbox WHERE sent_at IS NULL")
+    Mono<Long> countPending();
+}
@@ -0,0 +1,155 @@
+package com.eprcuen.userservice.persistence.repositories;
+
+import com.eprcuen.userservice.persistence.entities.OutboxEvent;
+import com.eprcuen.userservice.persistence.entities.UserApp;
+import com.eprcuen.userservice.persistence.entities.ValidationToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for bulk operations over the users, validation_tokens and outbox tables.
+ * Writes many rows with a single multi-row INSERT statement through DatabaseClient,
+ * instead of one statement and one round trip per entity as ReactiveCrudRepository does.
+ *
+ * @author caito
+ *
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Finds which of the given emails are already registered.
+     *
+     * @param emails the emails to check
+     * @return a Flux with the emails that already exist in the users table
+     */
+    public Flux<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("SELECT email FROM users WHERE email IN (:emails)")
+                .bind("emails", emails)
+                .map(row -> row.get("email", String.class))
+                .all();
+    }
+
+    /**
+     * Inserts the given users with a single multi-row INSERT statement.
+     * MySQL does not guarantee consecutive auto-increment values for concurrent multi-row inserts,
+     * so the generated ids are read back by email.
+     *
+     * @param users the users to insert
+     * @return a Mono with the generated ids keyed by email
+     */
+    public Mono<Map<String, Long>> insertUsers(List<UserApp> users) {
+        if (users.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO users (username, email, telephone, password, " +
+                "account_non_expired, account_non_locked, credentials_non_expired, enabled, role) VALUES ");
+        for (int i = 0; i < users.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:username").append(i)
+                    .append(", :email").append(i)
+                    .append(", :telephone").append(i)
+                    .append(", :password").append(i)
+                    .append(", :accountNonExpired").append(i)
+                    .append(", :accountNonLocked").append(i)
+                    .append(", :credentialsNonExpired").append(i)
+                    .append(", :enabled").append(i)
+                    .append(", :role").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < users.size(); i++) {
+            UserApp user = users.get(i);
+            spec = bind(spec, "username" + i, user.getUsername(), String.class);
+            spec = bind(spec, "email" + i, user.getEmail(), String.class);
+            spec = bind(spec, "telephone" + i, user.getTelephone(), String.class);
+            spec = bind(spec, "password" + i, user.getPassword(), String.class);
+            spec = spec.bind("accountNonExpired" + i, user.isAccountNonExpired())
+                    .bind("accountNonLocked" + i, user.isAccountNonLocked())
+                    .bind("credentialsNonExpired" + i, user.isCredentialsNonExpired())
+                    .bind("enabled" + i, user.isEnabled());
+            spec = bind(spec, "role" + i, user.getRole(), String.class);
+        }
+        List<String> emails = users.stream().map(UserApp::getEmail).toList();
+        return spec.fetch().rowsUpdated()
+                .thenMany(databaseClient.sql("SELECT id, email FROM users WHERE email IN (:emails)")
+                        .bind("emails", emails)
+                        .map(row -> Map.entry(row.get("email", String.class), row.get("id", Long.class)))
+                        .all())
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Inserts the given validation tokens with a single multi-row INSERT statement.
+     *
+     * @param tokens the tokens to insert
+     * @return a Mono with the number of inserted rows
+     */
+    public Mono<Long> insertTokens(List<ValidationToken> tokens) {
+        if (tokens.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO validation_tokens (token, email, expiry_date) VALUES ");
+        for (int i = 0; i < tokens.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:token").append(i)
+                    .append(", :email").append(i)
+                    .append(", :expiryDate").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < tokens.size(); i++) {
+            ValidationToken token = tokens.get(i);
+            spec = spec.bind("token" + i, token.getToken())
+                    .bind("email" + i, token.getEmail())
+                    .bind("expiryDate" + i, token.getExpiryDate());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Inserts the given outbox events with a single multi-row INSERT statement.
+     *
+     * @param events the events to insert
+     * @return a Mono with the number of inserted rows
+     */
+    public Mono<Long> insertOutboxEvents(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO outbox (topic, event_key, event_type, payload, created_at) VALUES ");
+        for (int i = 0; i < events.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:topic").append(i)
+                    .append(", :eventKey").append(i)
+                    .append(", :eventType").append(i)
+                    .append(", :payload").append(i)
+                    .append(", :createdAt").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            spec = spec.bind("topic" + i, event.getTopic())
+                    .bind("eventKey" + i, event.getEventKey())
+                    .bind("eventType" + i, event.getEventType())
+                    .bind("payload" + i, event.getPayload())
+                    .bind("createdAt" + i, event.getCreatedAt());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                              T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+}
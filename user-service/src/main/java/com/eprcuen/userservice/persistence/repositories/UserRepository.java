@@ -1,19 +1,73 @@
 package com.eprcuen.userservice.persistence.repositories;
 
 import com.eprcuen.userservice.persistence.entities.UserApp;
+import com.eprcuen.userservice.persistence.projections.UserSummary;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * UserRepository interface for managing UserApp entities.
  * Extends ReactiveCrudRepository for reactive data access.
  * Provides methods to find users by username and email, and check if an email exists.
+ * Read paths use the UserSummary projection queries, which select only the columns they return.
  *
  * @author caito
  *
  */
 public interface UserRepository extends ReactiveCrudRepository<UserApp, Long> {
+    String SUMMARY_COLUMNS = "id, username, email, telephone, role";
+
     Mono<UserApp> findByUsername(String username);
     Mono<UserApp> findByEmail(String email);
     Mono<Boolean> existsByEmail(String email);
+
+    /**
+     * Streams the email of every user, without materializing the entities.
+     *
+     * @return a Flux with all registered emails
+     */
+    @Query("SELECT email FROM users")
+    Flux<String> findAllEmails();
+
+    /**
+     * Enables a user that is still disabled.
+     *
+     * @param email the email of the user
+     * @return a Mono with the number of enabled users, 0 when there is no such user or it is already enabled
+     */
+    @Modifying
+    @Query("UPDATE users SET enabled = TRUE WHERE email = :email AND enabled = FALSE")
+    Mono<Integer> enableByEmail(String email);
+
+    /**
+     * Streams every user as a UserSummary projection.
+     *
+     * @return a Flux of UserSummary
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM users")
+    Flux<UserSummary> findAllSummaries();
+
+    /**
+     * Keyset pagination over the users table.
+     * Returns at most {@code limit} users whose id is greater than {@code afterId}, ordered by id,
+     * so each page is an index range scan on the primary key regardless of its position.
+     *
+     * @param afterId the last id of the previous page (0 for the first page)
+     * @param limit   the maximum number of users to return
+     * @return a Flux of UserSummary ordered by id
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM users WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<UserSummary> findPage(Long afterId, int limit);
+
+    /**
+     * Finds a user by id as a UserSummary projection.
+     *
+     * @param id the id of the user
+     * @return a Mono of UserSummary, empty if there is no such user
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM users WHERE id = :id")
+    Mono<UserSummary> findSummaryById(Long id);
 }
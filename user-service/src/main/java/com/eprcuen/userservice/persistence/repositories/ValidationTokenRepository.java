@@ -1,14 +1,38 @@
 package com.eprcuen.userservice.persistence.repositories;
 
 import com.eprcuen.userservice.persistence.entities.ValidationToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for managing ValidationToken entities.
- * It extends ReactiveCrudRepository to provide reactive data access methods.
+ * It extends ReactiveCrudRepository to provide reactive data access methods,
+ * plus the indexed lookup and consumption of tokens by value.
  *
  * @author caito
  *
  */
 public interface ValidationTokenRepository extends ReactiveCrudRepository<ValidationToken, Long> {
+
+    /**
+     * Looks a token up through the unique index on validation_tokens.token.
+     *
+     * @param token the token value
+     * @return a Mono with the token, or empty if it does not exist
+     */
+    @Query("SELECT * FROM validation_tokens WHERE token = :token")
+    Mono<ValidationToken> findByToken(String token);
+
+    /**
+     * Deletes a token by value. Returns 0 when the token was already consumed, which makes
+     * the deletion the point where a token is used exactly once.
+     *
+     * @param token the token value
+     * @return a Mono with the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM validation_tokens WHERE token = :token")
+    Mono<Integer> deleteByToken(String token);
 }
@@ -0,0 +1,22 @@
+package com.eprcuen.userservice.services.contracts;
+
+import com.eprcuen.userservice.persistence.entities.ValidationToken;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/*
+ * ActivationTokenService interface defining the account activation token operations.
+ * Includes issuing tokens, storing them when the mode requires it, redeeming them and forgetting them
+ * once the redemption has committed.
+ *
+ * @author caito
+ *
+ */
+public interface ActivationTokenService {
+    ValidationToken newToken(String email);
+    Mono<ValidationToken> issue(String email);
+    Mono<Void> storeAll(List<ValidationToken> tokens);
+    Mono<String> redeem(String token);
+    void redeemed(String token);
+}
@@ -0,0 +1,16 @@
+package com.eprcuen.userservice.services.contracts;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * EmailRegistry interface defining the email uniqueness checks used on registration.
+ * Includes a reactive check against the database and a fast in-memory pre-check.
+ *
+ * @author caito
+ *
+ */
+public interface EmailRegistry {
+    Mono<Boolean> isRegistered(String email);
+    boolean mightBeRegistered(String email);
+    void register(String email);
+}
@@ -0,0 +1,15 @@
+package com.eprcuen.userservice.services.contracts;
+
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.SenderRecord;
+
+/*
+ * EventPublisher interface defining reactive publishing of events to the message broker.
+ * Includes publishing a stream of correlated records.
+ *
+ * @author caito
+ *
+ */
+public interface EventPublisher {
+    <T> Flux<T> publishAll(Flux<SenderRecord<String, Object, T>> records);
+}
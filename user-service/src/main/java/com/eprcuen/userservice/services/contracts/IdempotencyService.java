@@ -0,0 +1,17 @@
+package com.eprcuen.userservice.services.contracts;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/*
+ * IdempotencyService interface defining how user creations are deduplicated by idempotency key.
+ * Includes running a creation once per key and replaying its result to duplicates.
+ *
+ * @author caito
+ *
+ */
+public interface IdempotencyService {
+    Mono<UserResponse> execute(String key, String fingerprint, Supplier<Mono<UserResponse>> action);
+}
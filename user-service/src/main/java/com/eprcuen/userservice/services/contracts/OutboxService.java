@@ -0,0 +1,20 @@
+package com.eprcuen.userservice.services.contracts;
+
+import com.eprcuen.userservice.persistence.entities.OutboxEvent;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/*
+ * OutboxService interface defining the transactional outbox operations.
+ * Events are enqueued in the caller's transaction and published later by the relay.
+ *
+ * @author caito
+ *
+ */
+public interface OutboxService {
+    OutboxEvent toEvent(String topic, String key, Object payload);
+    Mono<Void> enqueue(String topic, String key, Object payload);
+    Mono<Void> enqueueAll(List<OutboxEvent> events);
+    Mono<Integer> relay();
+}
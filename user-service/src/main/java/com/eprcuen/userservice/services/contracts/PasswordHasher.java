@@ -0,0 +1,23 @@
+package com.eprcuen.userservice.services.contracts;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * PasswordHasher interface defining reactive password hashing operations.
+ * Hashing is CPU bound and must never run on the Netty event loop.
+ *
+ * @author caito
+ *
+ */
+public interface PasswordHasher {
+    Mono<String> hash(CharSequence rawPassword);
+    Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * Returns how many hash operations run at the same time; callers that hash in bulk should not
+     * keep more than this many in flight, so they wait for a slot instead of filling the backlog.
+     *
+     * @return the number of hashing threads
+     */
+    int concurrency();
+}
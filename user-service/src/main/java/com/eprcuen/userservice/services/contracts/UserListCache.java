@@ -0,0 +1,38 @@
+package com.eprcuen.userservice.services.contracts;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/*
+ * UserListCache interface defining the cache of encoded GET /users responses.
+ * Includes reading a listing through the cache and invalidating every listing when a user changes.
+ * A listing too large to be cached is streamed from the query that read it.
+ *
+ * @author caito
+ *
+ */
+public interface UserListCache {
+    Mono<Listing> get(Long afterId, Integer limit, Supplier<Flux<UserResponse>> loader);
+    void changed();
+
+    /**
+     * A listing, either encoded or streamed.
+     */
+    sealed interface Listing permits Encoded, Streamed {
+    }
+
+    /**
+     * An encoded listing with its strong entity tag.
+     */
+    record Encoded(byte[] body, String etag) implements Listing {
+    }
+
+    /**
+     * A listing too large to be cached, streamed straight from the database.
+     */
+    record Streamed(Flux<UserResponse> users) implements Listing {
+    }
+}
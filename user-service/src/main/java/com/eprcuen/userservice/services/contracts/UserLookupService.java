@@ -0,0 +1,18 @@
+package com.eprcuen.userservice.services.contracts;
+
+import com.eprcuen.commons.models.UserChangedMsg;
+import com.eprcuen.userservice.persistence.entities.UserApp;
+import reactor.core.publisher.Mono;
+
+/*
+ * UserLookupService interface defining cached user lookups.
+ * Includes read-through lookups by username and email and the local invalidation of changed users.
+ *
+ * @author caito
+ *
+ */
+public interface UserLookupService {
+    Mono<UserApp> findByUsername(String username);
+    Mono<UserApp> findByEmail(String email);
+    void evict(UserChangedMsg msg);
+}
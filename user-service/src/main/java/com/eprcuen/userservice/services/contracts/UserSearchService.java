@@ -0,0 +1,21 @@
+package com.eprcuen.userservice.services.contracts;
+
+import com.eprcuen.commons.models.UserChangedMsg;
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.persistence.entities.UserApp;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/*
+ * UserSearchService interface defining the type-ahead search of users.
+ * Includes the prefix search over username and email and the updates of the search index.
+ *
+ * @author caito
+ *
+ */
+public interface UserSearchService {
+    Mono<List<UserResponse>> search(String query, int limit);
+    void index(UserApp user);
+    void refresh(UserChangedMsg msg);
+}
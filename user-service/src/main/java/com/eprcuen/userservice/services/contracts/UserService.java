@@ -1,12 +1,11 @@
 package com.eprcuen.userservice.services.contracts;
 
 import com.eprcuen.userservice.api.models.requests.UserRequest;
+import com.eprcuen.userservice.api.models.responses.BulkUserResponse;
 import com.eprcuen.userservice.api.models.responses.UserResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 /*
  * UserService interface defining user-related operations.
  * Includes methods for creating a user and retrieving all users.
@@ -16,5 +15,8 @@ import java.util.List;
  */
 public interface UserService {
     Mono<UserResponse> createUser(UserRequest request);
-    Flux<List<UserResponse>> getAllUsers();
+    Flux<UserResponse> getAllUsers();
+    Flux<UserResponse> getUsersPage(Long afterId, int limit);
+    Flux<BulkUserResponse> importUsers(Flux<UserRequest> requests);
+    Mono<UserResponse> activateUser(String token);
 }
@@ -0,0 +1,212 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.exceptions.NotFoundException;
+import com.eprcuen.commons.exceptions.TokenException;
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.userservice.persistence.entities.ValidationToken;
+import com.eprcuen.userservice.persistence.repositories.UserBatchRepository;
+import com.eprcuen.userservice.persistence.repositories.ValidationTokenRepository;
+import com.eprcuen.userservice.services.contracts.ActivationTokenService;
+import com.eprcuen.userservice.utils.tokens.ActivationTokenMode;
+import com.eprcuen.userservice.utils.tokens.HmacTokenCodec;
+import com.eprcuen.userservice.utils.tokens.RevocationSet;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of the ActivationTokenService interface.
+ * In STATEFUL mode tokens are random UUIDs stored in the validation_tokens table. Recently issued tokens
+ * are also held in a short-TTL cache, so the click that follows the email minutes later skips the lookup
+ * and only runs the DELETE that consumes the token.
+ * In STATELESS mode tokens are HMAC-signed encodings of email, expiry and nonce: issuing them writes
+ * nothing and redeeming them is verified in memory. Nothing about the token itself is persisted, so a
+ * stateless token stays valid until it expires; it is single use because it can only enable an account
+ * that is still disabled, which the users table records for every instance and across restarts. Once an
+ * activation has committed its nonce is also revoked in a local set, so replays on the same instance are
+ * rejected without a database round trip.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class ActivationTokenServiceImpl implements ActivationTokenService {
+    private static final StructuredLogger log = StructuredLogger.of(ActivationTokenServiceImpl.class);
+    private static final String INVALID_TOKEN = "Activation token is invalid";
+    private static final String EXPIRED_TOKEN = "Activation token has expired";
+    private static final String USED_TOKEN = "Activation token has already been used";
+    private final ValidationTokenRepository validationTokenRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final ActivationTokenMode mode;
+    private final Duration ttl;
+    private final HmacTokenCodec codec;
+    private final RevocationSet revocations = new RevocationSet();
+    private final Cache<String, ValidationToken> hotTokens;
+
+    public ActivationTokenServiceImpl(ValidationTokenRepository validationTokenRepository,
+                                      UserBatchRepository userBatchRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${application.activation.mode:STATEFUL}") ActivationTokenMode mode,
+                                      @Value("${application.activation.ttl:1d}") Duration ttl,
+                                      @Value("${application.activation.secret:}") String secret,
+                                      @Value("${application.activation.hot-cache.maximum-size:100000}") long hotMaximumSize,
+                                      @Value("${application.activation.hot-cache.ttl:30m}") Duration hotTtl) {
+        this.validationTokenRepository = validationTokenRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.mode = mode;
+        this.ttl = ttl;
+        if (mode == ActivationTokenMode.STATELESS && secret.isBlank()) {
+            throw new IllegalStateException("application.activation.secret is required in stateless mode");
+        }
+        this.codec = mode == ActivationTokenMode.STATELESS
+                ? new HmacTokenCodec(decodeSecret(secret))
+                : null;
+        this.hotTokens = Caffeine.newBuilder()
+                .maximumSize(hotMaximumSize)
+                .expireAfterWrite(hotTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hotTokens, "activation.tokens");
+        log.info("--> activation tokens configured", "mode", mode);
+    }
+
+    /**
+     * Generates a validation token for the user, valid for the configured TTL.
+     *
+     * @param email the email of the user for whom the token is generated
+     * @return a ValidationToken object containing the token and expiry date, not yet stored
+     */
+    @Override
+    public ValidationToken newToken(String email) {
+        LocalDateTime expiry = LocalDateTime.now().plus(ttl);
+        String token = mode == ActivationTokenMode.STATELESS
+                ? codec.sign(email, expiry.atZone(ZoneId.systemDefault()).toInstant())
+                : UUID.randomUUID().toString();
+        return ValidationToken.builder()
+                .token(token)
+                .expiryDate(expiry)
+                .email(email)
+                .build();
+    }
+
+    /**
+     * Generates a validation token and stores it when the mode requires it.
+     *
+     * @param email the email of the user for whom the token is generated
+     * @return a Mono with the issued token
+     */
+    @Override
+    public Mono<ValidationToken> issue(String email) {
+        ValidationToken token = this.newToken(email);
+        return mode == ActivationTokenMode.STATELESS
+                ? Mono.just(token)
+                : validationTokenRepository.save(token).doOnNext(saved -> hotTokens.put(saved.getToken(), saved));
+    }
+
+    /**
+     * Stores the given tokens with a single statement when the mode requires it.
+     *
+     * @param tokens the tokens to store
+     * @return a Mono that completes when the tokens are stored
+     */
+    @Override
+    public Mono<Void> storeAll(List<ValidationToken> tokens) {
+        return mode == ActivationTokenMode.STATELESS
+                ? Mono.empty()
+                : userBatchRepository.insertTokens(tokens)
+                .doOnNext(count -> tokens.forEach(token -> hotTokens.put(token.getToken(), token)))
+                .then();
+    }
+
+    /**
+     * Redeems a token in the caller's transaction. In STATEFUL mode the token row is deleted, so the
+     * token cannot be used again once the transaction commits; in STATELESS mode the token is only verified.
+     *
+     * @param token the token received by the user
+     * @return a Mono with the email the token was issued for, or an error if the token is unknown,
+     * expired or already used
+     */
+    @Override
+    public Mono<String> redeem(String token) {
+        if (mode == ActivationTokenMode.STATELESS) {
+            return Mono.fromCallable(() -> this.redeemStateless(token));
+        }
+        ValidationToken hot = hotTokens.getIfPresent(token);
+        Mono<ValidationToken> stored = hot != null ? Mono.just(hot) : validationTokenRepository.findByToken(token);
+        return stored
+                .switchIfEmpty(Mono.error(() -> new NotFoundException(INVALID_TOKEN)))
+                .flatMap(found -> found.getExpiryDate().isBefore(LocalDateTime.now())
+                        ? Mono.<String>error(new TokenException(EXPIRED_TOKEN))
+                        : validationTokenRepository.deleteByToken(token)
+                        .flatMap(deleted -> deleted == 0
+                                ? Mono.<String>error(new NotFoundException(INVALID_TOKEN))
+                                : Mono.just(found.getEmail())));
+    }
+
+    /**
+     * Forgets a token whose redemption has committed: drops it from the hot cache, or revokes its nonce
+     * in STATELESS mode. A redemption that rolls back leaves the token usable.
+     *
+     * @param token the redeemed token
+     */
+    @Override
+    public void redeemed(String token) {
+        if (mode == ActivationTokenMode.STATELESS) {
+            codec.verify(token).ifPresent(claims -> revocations.revoke(claims.nonce(), claims.expiry()));
+        } else {
+            hotTokens.invalidate(token);
+        }
+    }
+
+    /**
+     * Drops revoked nonces whose tokens have expired anyway.
+     */
+    @Scheduled(fixedDelayString = "${application.activation.revocation-purge-interval-ms:600000}")
+    public void purgeRevocations() {
+        revocations.purgeExpired(Instant.now());
+    }
+
+    private String redeemStateless(String token) {
+        HmacTokenCodec.Claims claims = codec.verify(token)
+                .orElseThrow(() -> new NotFoundException(INVALID_TOKEN));
+        if (claims.expiry().isBefore(Instant.now())) {
+            throw new TokenException(EXPIRED_TOKEN);
+        }
+        if (revocations.isRevoked(claims.nonce())) {
+            throw new TokenException(USED_TOKEN);
+        }
+        return claims.email();
+    }
+
+    /**
+     * Decodes application.activation.secret, which must be the Base64 encoding of at least
+     * {@link HmacTokenCodec#MIN_SECRET_BYTES} random bytes, so a mistyped secret fails the startup instead of
+     * silently becoming a different key.
+     */
+    private static byte[] decodeSecret(String secret) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("application.activation.secret must be Base64 encoded", e);
+        }
+        if (key.length < HmacTokenCodec.MIN_SECRET_BYTES) {
+            throw new IllegalStateException("application.activation.secret must decode to at least "
+                    + HmacTokenCodec.MIN_SECRET_BYTES + " bytes, got " + key.length);
+        }
+        return key;
+    }
+}
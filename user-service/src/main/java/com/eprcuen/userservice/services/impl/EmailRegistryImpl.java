@@ -0,0 +1,136 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.userservice.persistence.repositories.UserRepository;
+import com.eprcuen.userservice.services.contracts.EmailRegistry;
+import com.eprcuen.userservice.utils.filters.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Implementation of the EmailRegistry interface.
+ * Keeps a Bloom filter of every registered email, built from the users table at startup and updated
+ * on every successful create, local or broadcast by another instance. A definite negative from the filter answers without touching the
+ * database; only possible positives are confirmed with UserRepository.existsByEmail.
+ * Until the filter has been fully loaded every check goes to the database.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class EmailRegistryImpl implements EmailRegistry {
+    private static final StructuredLogger log = StructuredLogger.of(EmailRegistryImpl.class);
+    private final UserRepository userRepository;
+    private final BloomFilter filter;
+    private final Counter definiteNegatives;
+    private final Counter possiblePositives;
+    private final Counter falsePositives;
+    private final Duration loadMinBackoff;
+    private final Duration loadMaxBackoff;
+    private volatile boolean loaded;
+
+    public EmailRegistryImpl(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${application.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                             @Value("${application.email-filter.fpp:0.01}") double fpp,
+                             @Value("${application.email-filter.load-retry.min-backoff:1s}") Duration loadMinBackoff,
+                             @Value("${application.email-filter.load-retry.max-backoff:1m}") Duration loadMaxBackoff) {
+        this.userRepository = userRepository;
+        this.loadMinBackoff = loadMinBackoff;
+        this.loadMaxBackoff = loadMaxBackoff;
+        this.filter = new BloomFilter(expectedInsertions, fpp);
+        Gauge.builder("email.filter.expected.fpp", filter, BloomFilter::expectedFpp)
+                .description("Expected false-positive probability of the email Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("email.filter.memory", filter, BloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .description("Memory used by the email Bloom filter bit array")
+                .register(meterRegistry);
+        this.definiteNegatives = Counter.builder("email.filter.checks").tag("result", "negative")
+                .register(meterRegistry);
+        this.possiblePositives = Counter.builder("email.filter.checks").tag("result", "positive")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("email.filter.false.positives")
+                .description("Possible positives that the database reported as not registered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads every registered email into the filter, streaming them from the users table.
+     * A failed scan is started again with exponential backoff until it completes, so a database outage at
+     * startup only delays the filter; the emails added by a failed scan stay in it, which is harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("--> loading registered emails into the Bloom filter...");
+        Mono.defer(() -> userRepository.findAllEmails()
+                        .doOnNext(this::register)
+                        .count())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, loadMinBackoff)
+                        .maxBackoff(loadMaxBackoff)
+                        .doBeforeRetry(signal -> log.warn("Error loading the Bloom filter, retrying",
+                                "attempt", signal.totalRetries() + 1, "error", signal.failure().getMessage())))
+                .subscribe(count -> {
+                    loaded = true;
+                    log.info("--> Bloom filter loaded", "emails", count);
+                }, err -> log.error("Error loading the Bloom filter", err));
+    }
+
+    /**
+     * Checks whether the given email is already registered.
+     *
+     * @param email the email to check
+     * @return a Mono with true when the email is registered
+     */
+    @Override
+    public Mono<Boolean> isRegistered(String email) {
+        if (loaded && !filter.mightContain(normalize(email))) {
+            definiteNegatives.increment();
+            return Mono.just(false);
+        }
+        possiblePositives.increment();
+        return userRepository.existsByEmail(email)
+                .doOnNext(exists -> {
+                    if (loaded && !exists) {
+                        falsePositives.increment();
+                    }
+                });
+    }
+
+    /**
+     * Checks the filter only.
+     *
+     * @param email the email to check
+     * @return false when the email is definitely not registered, true when it may be
+     */
+    @Override
+    public boolean mightBeRegistered(String email) {
+        return !loaded || filter.mightContain(normalize(email));
+    }
+
+    /**
+     * Adds the given email to the filter.
+     *
+     * @param email the registered email
+     */
+    @Override
+    public void register(String email) {
+        if (email != null) {
+            filter.put(normalize(email));
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
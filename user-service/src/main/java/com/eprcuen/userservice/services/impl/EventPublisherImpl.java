@@ -0,0 +1,44 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.userservice.services.contracts.EventPublisher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+/**
+ * Implementation of the EventPublisher interface on top of reactor-kafka's KafkaSender.
+ * Sends are non-blocking and bounded by the sender's maxInFlight, so a slow broker applies
+ * backpressure to the caller instead of piling up callbacks.
+ *
+ * @author caito
+ *
+ */
+@Service
+@RequiredArgsConstructor
+public class EventPublisherImpl implements EventPublisher {
+    private static final StructuredLogger log = StructuredLogger.of(EventPublisherImpl.class);
+    private final KafkaSender<String, Object> kafkaSender;
+
+    /**
+     * Publishes a stream of records and emits the correlation metadata of every acknowledged one.
+     * Failed records are logged and skipped, so the caller can retry exactly those.
+     *
+     * @param records the records to publish, each carrying its correlation metadata
+     * @return a Flux with the correlation metadata of the acknowledged records
+     */
+    @Override
+    public <T> Flux<T> publishAll(Flux<SenderRecord<String, Object, T>> records) {
+        return kafkaSender.send(records)
+                .filter(result -> {
+                    if (result.exception() != null) {
+                        log.error("Error sending message to broker", result.exception());
+                        return false;
+                    }
+                    return true;
+                })
+                .map(result -> result.correlationMetadata());
+    }
+}
@@ -0,0 +1,79 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.exceptions.ConflictException;
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.services.contracts.IdempotencyService;
+import com.eprcuen.userservice.utils.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the IdempotencyService interface.
+ * Keeps the in-flight and completed user creations of the last application.idempotency.ttl in an
+ * IdempotencyStore, so a retried POST with the same Idempotency-Key neither hashes, inserts nor publishes again.
+ * The store is local to the instance: retries routed to another instance are not deduplicated.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final String KEY_REUSED = "Idempotency-Key was already used with a different request";
+    private final IdempotencyStore<UserResponse> store;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+
+    public IdempotencyServiceImpl(@Value("${application.idempotency.maximum-size:100000}") int maximumSize,
+                                  @Value("${application.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${application.idempotency.stripes:16}") int stripes,
+                                  MeterRegistry meterRegistry) {
+        this.store = new IdempotencyStore<>(maximumSize, ttl, stripes);
+        Gauge.builder("idempotency.keys", store, IdempotencyStore::size)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+        this.executed = Counter.builder("idempotency.requests").tag("result", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("idempotency.requests").tag("result", "replayed").register(meterRegistry);
+        this.conflicts = Counter.builder("idempotency.requests").tag("result", "conflict").register(meterRegistry);
+    }
+
+    /**
+     * Runs the action once per idempotency key.
+     * A duplicate arriving while the first request is running waits for the same result,
+     * a duplicate arriving later gets the cached result immediately.
+     *
+     * @param key         the idempotency key sent by the client
+     * @param fingerprint the RequestFingerprint of the request body
+     * @param action      the user creation to run
+     * @return a Mono of the UserResponse of the first request with this key,
+     * or a ConflictException if the key was used with a different request
+     */
+    @Override
+    public Mono<UserResponse> execute(String key, String fingerprint, Supplier<Mono<UserResponse>> action) {
+        return Mono.defer(() -> {
+            IdempotencyStore.Claim<UserResponse> claim = store.claim(key, fingerprint, action);
+            if (claim == null) {
+                conflicts.increment();
+                return Mono.error(new ConflictException(KEY_REUSED));
+            }
+            (claim.owner() ? executed : replayed).increment();
+            return claim.result();
+        });
+    }
+
+    /**
+     * Removes expired idempotency keys.
+     */
+    @Scheduled(fixedDelayString = "${application.idempotency.purge-interval-ms:60000}")
+    public void purge() {
+        store.purgeExpired();
+    }
+}
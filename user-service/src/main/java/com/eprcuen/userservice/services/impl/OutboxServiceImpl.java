@@ -0,0 +1,271 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.userservice.persistence.entities.OutboxEvent;
+import com.eprcuen.userservice.persistence.repositories.OutboxRepository;
+import com.eprcuen.userservice.persistence.repositories.UserBatchRepository;
+import com.eprcuen.userservice.services.contracts.EventPublisher;
+import com.eprcuen.userservice.services.contracts.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the OutboxService interface.
+ * Events are serialized to JSON and stored in the outbox table by the caller's transaction.
+ * A scheduled relay drains the table in batches: a short transaction claims the oldest pending rows with
+ * a lease, then the rows are published outside of it through the reactive EventPublisher, keys in parallel,
+ * and finally the acknowledged rows are marked as sent. Only the oldest pending row of a key can be claimed,
+ * so the rows of a key are published one after the other across cycles and instances; a row that could not
+ * be sent is released and holds back the later rows of its key until it is retried on the next cycle.
+ * Rows of a relay that died keep their claim until the lease expires.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+    private static final StructuredLogger log = StructuredLogger.of(OutboxServiceImpl.class);
+    private static final String EVENT_PACKAGE = "com.eprcuen.commons.models.";
+    private static final Duration RELAY_TIMEOUT = Duration.ofSeconds(30);
+    private final OutboxRepository outboxRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final EventPublisher eventPublisher;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration claimTimeout;
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxServiceImpl(OutboxRepository outboxRepository,
+                             UserBatchRepository userBatchRepository,
+                             EventPublisher eventPublisher,
+                             TransactionalOperator transactionalOperator,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${application.outbox.batch-size:500}") int batchSize,
+                             @Value("${application.outbox.retention:24h}") Duration retention,
+                             @Value("${application.outbox.claim-timeout:2m}") Duration claimTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionalOperator = transactionalOperator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.claimTimeout = claimTimeout;
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+        this.published = Counter.builder("outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("outbox.failed").register(meterRegistry);
+    }
+
+    /**
+     * Builds an outbox event for the given payload.
+     *
+     * @param topic   the topic the event is published to
+     * @param key     the record key, which selects the partition
+     * @param payload the event to publish
+     * @return the outbox event, not yet saved
+     */
+    @Override
+    public OutboxEvent toEvent(String topic, String key, Object payload) {
+        try {
+            return OutboxEvent.builder()
+                    .topic(topic)
+                    .eventKey(key)
+                    .eventType(payload.getClass().getName())
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event cannot be serialized: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stores an event in the outbox, in the caller's transaction.
+     *
+     * @param topic   the topic the event is published to
+     * @param key     the record key, which selects the partition
+     * @param payload the event to publish
+     * @return a Mono that completes when the event is stored
+     */
+    @Override
+    public Mono<Void> enqueue(String topic, String key, Object payload) {
+        return Mono.fromCallable(() -> this.toEvent(topic, key, payload))
+                .flatMap(outboxRepository::save)
+                .then();
+    }
+
+    /**
+     * Stores several events in the outbox with a single statement, in the caller's transaction.
+     *
+     * @param events the events to store
+     * @return a Mono that completes when the events are stored
+     */
+    @Override
+    public Mono<Void> enqueueAll(List<OutboxEvent> events) {
+        return userBatchRepository.insertOutboxEvents(events).then();
+    }
+
+    /**
+     * Claims one batch of pending events, publishes it, marks the acknowledged events as sent and
+     * releases the others.
+     *
+     * @return a Mono with the number of events published
+     */
+    @Override
+    public Mono<Integer> relay() {
+        return this.claim()
+                .flatMap(events -> events.isEmpty()
+                        ? Mono.just(0)
+                        : this.publish(events).flatMap(sentIds -> this.settle(events, sentIds)));
+    }
+
+    /**
+     * Drains the outbox until a batch comes back smaller than the batch size.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval-ms:500}")
+    public void drain() {
+        try {
+            Integer count;
+            do {
+                count = this.relay().block(RELAY_TIMEOUT);
+            } while (count != null && count >= batchSize);
+        } catch (Exception e) {
+            log.error("Error relaying outbox events", e);
+        }
+    }
+
+    /**
+     * Refreshes the pending gauge and deletes the sent events older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.maintenance-interval-ms:30000}")
+    public void maintain() {
+        try {
+            outboxRepository.countPending()
+                    .doOnNext(pending::set)
+                    .then(outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention)))
+                    .block(RELAY_TIMEOUT);
+        } catch (Exception e) {
+            log.error("Error maintaining the outbox", e);
+        }
+    }
+
+    /**
+     * Locks the oldest claimable events and claims them for the lease, in a short transaction.
+     *
+     * @return a Mono with the claimed events, in id order
+     */
+    private Mono<List<OutboxEvent>> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.lockPending(batchSize, now)
+                .collectList()
+                .flatMap(events -> events.isEmpty()
+                        ? Mono.just(events)
+                        : outboxRepository.claim(ids(events), now.plus(claimTimeout)).thenReturn(events))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Sends the events through the reactive publisher. Keys are sent in parallel, so the producer can
+     * still batch them; the events of a key are sent one after the other, and a key stops at its first
+     * event that is not acknowledged.
+     *
+     * @param events the events to send, in id order
+     * @return a Mono with the ids of the acknowledged events
+     */
+    private Mono<List<Long>> publish(List<OutboxEvent> events) {
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            byKey.computeIfAbsent(event.getTopic() + '\0' + event.getEventKey(), key -> new ArrayList<>())
+                    .add(event);
+        }
+        return Flux.fromIterable(byKey.values())
+                .flatMap(keyEvents -> Flux.fromIterable(keyEvents)
+                        .concatMap(event -> this.send(event)
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty()))
+                        .takeWhile(Optional::isPresent)
+                        .map(Optional::get))
+                .doOnNext(id -> published.increment())
+                .collectList()
+                .doOnNext(sentIds -> failed.increment(events.size() - sentIds.size()));
+    }
+
+    /**
+     * Sends one event.
+     *
+     * @param event the event to send
+     * @return a Mono with the id of the event once acknowledged, or empty if it could not be sent
+     */
+    private Mono<Long> send(OutboxEvent event) {
+        return Mono.fromCallable(() -> SenderRecord.<String, Object, Long>create(
+                        new ProducerRecord<>(event.getTopic(), event.getEventKey(), this.readPayload(event)),
+                        event.getId()))
+                .flatMap(record -> eventPublisher.publishAll(Flux.just(record)).next())
+                .onErrorResume(err -> {
+                    log.error("Error sending outbox event", "id", event.getId(), err);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Marks the acknowledged events as sent and releases the claim of the others.
+     *
+     * @param events  the claimed events
+     * @param sentIds the ids of the acknowledged events
+     * @return a Mono with the number of events sent
+     */
+    private Mono<Integer> settle(List<OutboxEvent> events, List<Long> sentIds) {
+        Set<Long> sent = new HashSet<>(sentIds);
+        List<Long> unsent = events.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !sent.contains(id))
+                .toList();
+        Mono<Integer> marked = sentIds.isEmpty()
+                ? Mono.just(0)
+                : outboxRepository.markSent(sentIds, LocalDateTime.now());
+        Mono<Integer> released = unsent.isEmpty()
+                ? Mono.just(0)
+                : outboxRepository.release(unsent);
+        return marked.then(released).thenReturn(sentIds.size());
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private Object readPayload(OutboxEvent event) throws JsonProcessingException, ClassNotFoundException {
+        if (!event.getEventType().startsWith(EVENT_PACKAGE)) {
+            throw new IllegalStateException("Untrusted event type " + event.getEventType());
+        }
+        return objectMapper.readValue(event.getPayload(), Class.forName(event.getEventType()));
+    }
+}
@@ -0,0 +1,150 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.exceptions.ServiceUnavailableException;
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.userservice.services.contracts.PasswordHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the PasswordHasher interface.
+ * Runs the PasswordEncoder on a dedicated bounded scheduler so BCrypt never blocks the event loop,
+ * and rejects new work with a ServiceUnavailableException once the configured backlog is reached.
+ * Optionally calibrates the BCrypt cost at startup to hit a target hash time on the current hardware.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class PasswordHasherImpl implements PasswordHasher, DisposableBean {
+    private static final StructuredLogger log = StructuredLogger.of(PasswordHasherImpl.class);
+    private static final String BACKLOG_FULL = "Password hashing backlog is full, retry later";
+    private final Scheduler scheduler;
+    private final int poolSize;
+    private final int maxBacklog;
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Timer hashTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+    private volatile PasswordEncoder encoder;
+
+    public PasswordHasherImpl(PasswordEncoder passwordEncoder,
+                              MeterRegistry meterRegistry,
+                              @Value("${application.password-hasher.threads:0}") int threads,
+                              @Value("${application.password-hasher.max-backlog:256}") int maxBacklog,
+                              @Value("${application.password-hasher.calibration.enabled:false}") boolean calibrate,
+                              @Value("${application.password-hasher.calibration.target-ms:250}") long targetMillis,
+                              @Value("${application.password-hasher.calibration.min-cost:10}") int minCost,
+                              @Value("${application.password-hasher.calibration.max-cost:16}") int maxCost) {
+        this.poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.scheduler = Schedulers.newBoundedElastic(poolSize, maxBacklog, "password-hasher");
+        this.maxBacklog = maxBacklog;
+        this.encoder = calibrate ? this.calibrate(targetMillis, minCost, maxCost) : passwordEncoder;
+        Gauge.builder("password.hasher.queue.depth", backlog, AtomicInteger::get)
+                .description("Hash operations queued or running on the hashing scheduler")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("password.hasher.hash.time")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("password.hasher.match.time")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hasher.rejected")
+                .description("Hash operations rejected because the backlog was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes the given password on the hashing scheduler.
+     *
+     * @param rawPassword the password to hash
+     * @return a Mono with the encoded password, or a ServiceUnavailableException when the backlog is full
+     */
+    @Override
+    public Mono<String> hash(CharSequence rawPassword) {
+        return this.submit(() -> hashTimer.recordCallable(() -> encoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks the given password against an encoded one on the hashing scheduler.
+     *
+     * @param rawPassword     the password to check
+     * @param encodedPassword the stored encoded password
+     * @return a Mono with true when the password matches
+     */
+    @Override
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return this.submit(() -> matchTimer.recordCallable(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public int concurrency() {
+        return poolSize;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Runs the given task on the hashing scheduler if the backlog allows it.
+     */
+    private <T> Mono<T> submit(Callable<T> task) {
+        return Mono.defer(() -> {
+            if (backlog.incrementAndGet() > maxBacklog) {
+                backlog.decrementAndGet();
+                rejected.increment();
+                log.warn(BACKLOG_FULL, "maxBacklog", maxBacklog);
+                return Mono.error(new ServiceUnavailableException(BACKLOG_FULL));
+            }
+            return Mono.fromCallable(task)
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> backlog.decrementAndGet());
+        });
+    }
+
+    /**
+     * Picks the highest BCrypt cost between minCost and maxCost whose hash time stays under the target.
+     * Every cost step doubles the work, so the search stops at the first cost that exceeds the target.
+     *
+     * @param targetMillis the target hash time in milliseconds
+     * @param minCost      the lowest cost that may be chosen
+     * @param maxCost      the highest cost that may be chosen
+     * @return a BCryptPasswordEncoder with the chosen cost
+     */
+    private PasswordEncoder calibrate(long targetMillis, int minCost, int maxCost) {
+        log.info("--> calibrating BCrypt cost", "targetMs", targetMillis);
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(cost);
+            candidate.encode("calibration-warmup");
+            long start = System.nanoTime();
+            candidate.encode("calibration-sample");
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("--> BCrypt cost measured", "cost", cost, "ms", elapsedMillis);
+            if (elapsedMillis > targetMillis && cost > minCost) {
+                break;
+            }
+            chosen = cost;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+        }
+        log.info("--> using BCrypt cost", "cost", chosen);
+        return new BCryptPasswordEncoder(chosen);
+    }
+}
@@ -0,0 +1,169 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.services.contracts.UserListCache;
+import com.eprcuen.userservice.utils.json.UserResponseEncoder;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the UserListCache interface.
+ * Keeps the GET /users listings, encoded by UserResponseEncoder, in a Caffeine cache bounded by their size in bytes,
+ * keyed by the query parameters and by a version of the users table that is bumped on every change
+ * seen by this instance, local or broadcast. A change makes every cached listing unreachable, so
+ * polling clients cost one query per change instead of one per poll.
+ * Concurrent misses for the same listing share a single database query; a waiter that cancels leaves the
+ * shared load running for the others.
+ * The entity tag is a hash of the encoded body, so every instance returns the same tag for the
+ * same content. The full listing is only cached while the table has at most
+ * application.user-list-cache.max-rows users. Once a load has found it larger, the next loads stream it
+ * straight from their query while counting its rows, and cache it again as soon as it fits, so a table that
+ * stays large is read once per request and one that shrinks is cached again after the next change.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class UserListCacheImpl implements UserListCache {
+    private static final int ETAG_BYTES = 16;
+    private final UserResponseEncoder encoder;
+    private final AsyncCache<Key, Encoded> listings;
+    private final AtomicLong version = new AtomicLong();
+    private final int maxRows;
+    private volatile boolean fullListTooLarge;
+
+    public UserListCacheImpl(UserResponseEncoder encoder,
+                             MeterRegistry meterRegistry,
+                             @Value("${application.user-list-cache.maximum-bytes:67108864}") long maximumBytes,
+                             @Value("${application.user-list-cache.max-rows:10000}") int maxRows,
+                             @Value("${application.user-list-cache.ttl:10m}") Duration ttl) {
+        this.encoder = encoder;
+        this.maxRows = maxRows;
+        this.listings = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<Key, Encoded>weigher((key, listing) -> listing.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, listings.synchronous(), "users.list");
+    }
+
+    /**
+     * Returns the encoded listing for the given parameters at the current version of the users table,
+     * loading it with the given loader on a miss.
+     *
+     * @param afterId the afterId query parameter, or null
+     * @param limit   the effective page size, or null for the full listing
+     * @param loader  reads the listing from the database
+     * @return a Mono with the encoded listing, or with the streamed one when it is too large to be cached
+     */
+    @Override
+    public Mono<Listing> get(Long afterId, Integer limit, Supplier<Flux<UserResponse>> loader) {
+        if (limit != null && limit > maxRows) {
+            return Mono.fromSupplier(() -> new Streamed(loader.get()));
+        }
+        return Mono.defer(() -> {
+            boolean streaming = afterId == null && limit == null && fullListTooLarge;
+            Key key = new Key(version.get(), afterId, limit);
+            CompletableFuture<Encoded> pending = new CompletableFuture<>();
+            CompletableFuture<Encoded> loading = listings.asMap().putIfAbsent(key, pending);
+            if (loading != null) {
+                Mono<Listing> streamed = Mono.fromSupplier(() -> new Streamed(loader.get()));
+                return streaming && !loading.isDone()
+                        ? streamed
+                        : Mono.fromFuture(loading, true).<Listing>map(encoded -> encoded).switchIfEmpty(streamed);
+            }
+            if (streaming) {
+                return Mono.just(new Streamed(this.counting(loader.get(), pending)));
+            }
+            return loader.get()
+                    .take(maxRows + 1L)
+                    .collectList()
+                    .<Listing>map(users -> {
+                        if (users.size() > maxRows) {
+                            fullListTooLarge = true;
+                            return new Streamed(loader.get());
+                        }
+                        Encoded encoded = this.encode(users);
+                        pending.complete(encoded);
+                        return encoded;
+                    })
+                    .doOnError(pending::completeExceptionally)
+                    .doFinally(signal -> pending.complete(null));
+        });
+    }
+
+    /**
+     * Streams the full listing while keeping its first rows, and caches it when it turns out to fit.
+     *
+     * @param users   the users read from the database
+     * @param pending the cache entry of the listing, completed with null when it is still too large
+     * @return the users, unchanged
+     */
+    private Flux<UserResponse> counting(Flux<UserResponse> users, CompletableFuture<Encoded> pending) {
+        return Flux.defer(() -> {
+            List<UserResponse> rows = new ArrayList<>();
+            AtomicBoolean tooLarge = new AtomicBoolean();
+            return users
+                    .doOnNext(user -> {
+                        if (tooLarge.get()) {
+                            return;
+                        }
+                        if (rows.size() == maxRows) {
+                            tooLarge.set(true);
+                            rows.clear();
+                            return;
+                        }
+                        rows.add(user);
+                    })
+                    .doOnComplete(() -> {
+                        if (!tooLarge.get()) {
+                            fullListTooLarge = false;
+                            pending.complete(this.encode(rows));
+                        }
+                    })
+                    .doFinally(signal -> pending.complete(null));
+        });
+    }
+
+    /**
+     * Bumps the version of the users table, so the next reads load fresh listings.
+     */
+    @Override
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    private Encoded encode(List<UserResponse> users) {
+        try {
+            byte[] body = encoder.encodeList(users);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String etag = '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, ETAG_BYTES)) + '"';
+            return new Encoded(body, etag);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Error encoding the users listing", e);
+        }
+    }
+
+    private record Key(long version, Long afterId, Integer limit) {
+    }
+}
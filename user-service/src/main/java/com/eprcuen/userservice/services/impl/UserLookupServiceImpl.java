@@ -0,0 +1,107 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.models.UserChangedMsg;
+import com.eprcuen.userservice.persistence.entities.UserApp;
+import com.eprcuen.userservice.persistence.repositories.UserRepository;
+import com.eprcuen.userservice.services.contracts.UserListCache;
+import com.eprcuen.userservice.services.contracts.UserLookupService;
+import com.eprcuen.userservice.utils.json.UserResponseEncoder;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Implementation of the UserLookupService interface.
+ * Fronts UserRepository.findByUsername and findByEmail with bounded Caffeine caches evicted by
+ * size and TTL. Concurrent misses for the same key share a single database query, which a caller that
+ * cancels leaves running for the others.
+ * A miss is loaded on a connection of its own, so the lookups are meant for reads outside a
+ * transaction; code running inside one should read through UserRepository instead.
+ * When a user changes, the service writing the change enqueues a UserChangedMsg for the
+ * "user-changed-topic" in its transaction and evicts the local entries once it has committed; the
+ * outbox relay publishes the message so every other instance evicts its copies too. Every eviction
+ * also invalidates the cached GET /users listings and the cached JSON encoding of the user.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class UserLookupServiceImpl implements UserLookupService {
+    public static final String USER_CHANGED_TOPIC = "user-changed-topic";
+    private final UserRepository userRepository;
+    private final UserListCache userListCache;
+    private final UserResponseEncoder userResponseEncoder;
+    private final AsyncCache<String, UserApp> byUsername;
+    private final AsyncCache<String, UserApp> byEmail;
+
+    public UserLookupServiceImpl(UserRepository userRepository,
+                                 UserListCache userListCache,
+                                 UserResponseEncoder userResponseEncoder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${application.user-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${application.user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.userListCache = userListCache;
+        this.userResponseEncoder = userResponseEncoder;
+        this.byUsername = buildCache(maximumSize, ttl);
+        this.byEmail = buildCache(maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername.synchronous(), "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail.synchronous(), "users.by-email");
+    }
+
+    /**
+     * Finds a user by username, reading through the cache.
+     *
+     * @param username the username to look up
+     * @return a Mono with the user, or empty if it does not exist
+     */
+    @Override
+    public Mono<UserApp> findByUsername(String username) {
+        return Mono.fromFuture(() -> byUsername.get(username,
+                (key, executor) -> userRepository.findByUsername(key).toFuture()), true);
+    }
+
+    /**
+     * Finds a user by email, reading through the cache.
+     *
+     * @param email the email to look up
+     * @return a Mono with the user, or empty if it does not exist
+     */
+    @Override
+    public Mono<UserApp> findByEmail(String email) {
+        return Mono.fromFuture(() -> byEmail.get(email,
+                (key, executor) -> userRepository.findByEmail(key).toFuture()), true);
+    }
+
+    /**
+     * Evicts the cached copies of the user described by the given message, its cached encoding
+     * and the cached listings.
+     *
+     * @param msg the change notification
+     */
+    @Override
+    public void evict(UserChangedMsg msg) {
+        userListCache.changed();
+        userResponseEncoder.evict(msg.getId());
+        if (msg.getUsername() != null) {
+            byUsername.synchronous().invalidate(msg.getUsername());
+        }
+        if (msg.getEmail() != null) {
+            byEmail.synchronous().invalidate(msg.getEmail());
+        }
+    }
+
+    private static AsyncCache<String, UserApp> buildCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+}
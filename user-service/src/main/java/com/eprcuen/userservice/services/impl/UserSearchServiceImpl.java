@@ -0,0 +1,227 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.commons.exceptions.ServiceUnavailableException;
+import com.eprcuen.commons.logs.StructuredLogger;
+import com.eprcuen.commons.models.UserChangedMsg;
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.persistence.entities.UserApp;
+import com.eprcuen.userservice.persistence.projections.UserSummary;
+import com.eprcuen.userservice.persistence.repositories.UserRepository;
+import com.eprcuen.userservice.services.contracts.UserSearchService;
+import com.eprcuen.userservice.utils.mappers.UserMapper;
+import com.eprcuen.userservice.utils.search.PrefixIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the UserSearchService interface.
+ * Answers prefix queries over username and email from a PrefixIndex held in memory, so type-ahead
+ * lookups never reach the database. The index is built at startup from a streamed scan of the users
+ * table and updated on every create and on every UserChangedMsg received from the other instances.
+ * Keys are lower-cased; when the stored value already is, the key shares its String with the
+ * cached UserSummary instead of holding a copy.
+ * Entries left behind by a changed username or email are skipped by the queries and dropped on the
+ * next compaction. Until the index has been fully loaded searches are rejected with a 503.
+ *
+ * @author caito
+ *
+ */
+@Service
+public class UserSearchServiceImpl implements UserSearchService {
+    private static final StructuredLogger log = StructuredLogger.of(UserSearchServiceImpl.class);
+    private static final String INDEX_LOADING = "User search index is loading";
+    private final UserRepository userRepository;
+    private final PrefixIndex index = new PrefixIndex();
+    private final Map<Long, UserSummary> users = new ConcurrentHashMap<>();
+    private final Timer searchTimer;
+    private final int compactionThreshold;
+    private final Duration loadMinBackoff;
+    private final Duration loadMaxBackoff;
+    private volatile boolean loaded;
+
+    public UserSearchServiceImpl(UserRepository userRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${application.user-search.compaction-threshold:4096}") int compactionThreshold,
+                                 @Value("${application.user-search.load-retry.min-backoff:1s}") Duration loadMinBackoff,
+                                 @Value("${application.user-search.load-retry.max-backoff:1m}") Duration loadMaxBackoff) {
+        this.userRepository = userRepository;
+        this.compactionThreshold = compactionThreshold;
+        this.loadMinBackoff = loadMinBackoff;
+        this.loadMaxBackoff = loadMaxBackoff;
+        this.searchTimer = Timer.builder("user.search")
+                .description("Time spent answering a prefix search from the index")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("user.search.entries", index, PrefixIndex::size)
+                .description("Entries in the compacted user search index")
+                .register(meterRegistry);
+        Gauge.builder("user.search.pending", index, PrefixIndex::pending)
+                .description("Entries added to the user search index since the last compaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index from every user, streaming them from the users table.
+     * Users indexed while the scan runs keep their newer data. A failed scan is started again with
+     * exponential backoff until it completes, so a database outage at startup only delays the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("--> loading users into the search index...");
+        Mono.defer(this::scan)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, loadMinBackoff)
+                        .maxBackoff(loadMaxBackoff)
+                        .doBeforeRetry(signal -> log.warn("Error loading the search index, retrying",
+                                "attempt", signal.totalRetries() + 1, "error", signal.failure().getMessage())))
+                .subscribe(entries -> {
+                    index.load(entries);
+                    loaded = true;
+                    log.info("--> search index loaded", "users", users.size());
+                }, err -> log.error("Error loading the search index", err));
+    }
+
+    /**
+     * Reads every user and collects its index entries.
+     *
+     * @return a Mono with the entries of one complete scan
+     */
+    private Mono<List<PrefixIndex.Entry>> scan() {
+        List<PrefixIndex.Entry> entries = new ArrayList<>();
+        return userRepository.findAllSummaries()
+                .doOnNext(user -> {
+                    users.putIfAbsent(user.id(), user);
+                    addEntry(entries, user.username(), user.id());
+                    addEntry(entries, user.email(), user.id());
+                })
+                .then(Mono.fromSupplier(() -> entries));
+    }
+
+    /**
+     * Finds the users whose username or email starts with the given query, ignoring case.
+     *
+     * @param query the prefix to look for
+     * @param limit the maximum number of users to return
+     * @return a Mono with the matching users in key order, or a ServiceUnavailableException
+     * while the index is loading
+     */
+    @Override
+    public Mono<List<UserResponse>> search(String query, int limit) {
+        if (!loaded) {
+            return Mono.error(new ServiceUnavailableException(INDEX_LOADING));
+        }
+        return Mono.fromSupplier(() -> searchTimer.record(() -> this.find(normalize(query), limit)));
+    }
+
+    /**
+     * Adds a user that has just been written to the database.
+     *
+     * @param user the created user
+     */
+    @Override
+    public void index(UserApp user) {
+        this.put(new UserSummary(user.getId(), user.getUsername(), user.getEmail(),
+                user.getTelephone(), user.getRole()));
+    }
+
+    /**
+     * Brings the index up to date with a change notification.
+     * The message only carries the id, username and email, so the user is read again only when one
+     * of them differs from the indexed copy; the notifications of this instance's own writes are no-ops.
+     *
+     * @param msg the change notification
+     */
+    @Override
+    public void refresh(UserChangedMsg msg) {
+        if (msg.getId() == null) {
+            return;
+        }
+        UserSummary current = users.get(msg.getId());
+        if (current != null && Objects.equals(current.username(), msg.getUsername())
+                && Objects.equals(current.email(), msg.getEmail())) {
+            return;
+        }
+        userRepository.findSummaryById(msg.getId())
+                .doOnNext(this::put)
+                .hasElement()
+                .subscribe(found -> {
+                    if (!found) {
+                        users.remove(msg.getId());
+                    }
+                }, err -> log.error("Error refreshing the search index", "id", msg.getId(), err));
+    }
+
+    /**
+     * Folds the entries added since the last compaction into the sorted arrays once there are enough
+     * of them, dropping the keys of users that changed or no longer exist.
+     */
+    @Scheduled(fixedDelayString = "${application.user-search.compaction-interval-ms:10000}")
+    public void compact() {
+        if (loaded && index.pending() >= compactionThreshold) {
+            index.compact(this::isLive);
+        }
+    }
+
+    private List<UserResponse> find(String prefix, int limit) {
+        List<UserResponse> result = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        index.forEachWithPrefix(prefix, (key, id) -> {
+            UserSummary user = users.get(id);
+            if (user != null && matches(user, prefix) && seen.add(id)) {
+                result.add(UserMapper.mapToDto(user));
+            }
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    private void put(UserSummary user) {
+        if (user.id() == null) {
+            return;
+        }
+        users.put(user.id(), user);
+        if (user.username() != null) {
+            index.add(normalize(user.username()), user.id());
+        }
+        if (user.email() != null) {
+            index.add(normalize(user.email()), user.id());
+        }
+    }
+
+    private boolean isLive(String key, long id) {
+        UserSummary user = users.get(id);
+        return user != null && (key.equals(normalize(user.username())) || key.equals(normalize(user.email())));
+    }
+
+    private static boolean matches(UserSummary user, String prefix) {
+        return user.username() != null && normalize(user.username()).startsWith(prefix)
+                || user.email() != null && normalize(user.email()).startsWith(prefix);
+    }
+
+    private static void addEntry(List<PrefixIndex.Entry> entries, String key, Long id) {
+        if (key != null) {
+            entries.add(new PrefixIndex.Entry(normalize(key), id));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
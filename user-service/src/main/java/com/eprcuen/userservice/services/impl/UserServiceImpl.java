@@ -1,32 +1,50 @@
 package com.eprcuen.userservice.services.impl;
 
 import com.eprcuen.commons.exceptions.BadRequestException;
+import com.eprcuen.commons.exceptions.NotFoundException;
+import com.eprcuen.commons.exceptions.ServiceUnavailableException;
+import com.eprcuen.commons.exceptions.TokenException;
+import com.eprcuen.commons.helpers.PasswordPolicy;
 import com.eprcuen.commons.helpers.ValidationHelper;
-import com.eprcuen.commons.logs.WriteLog;
+import com.eprcuen.commons.logs.StructuredLogger;
 import com.eprcuen.commons.models.HighMsg;
+import com.eprcuen.commons.models.UserChangedMsg;
 import com.eprcuen.userservice.api.models.requests.UserRequest;
+import com.eprcuen.userservice.api.models.responses.BulkUserResponse;
 import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.persistence.entities.OutboxEvent;
 import com.eprcuen.userservice.persistence.entities.UserApp;
 import com.eprcuen.userservice.persistence.entities.ValidationToken;
+import com.eprcuen.userservice.persistence.repositories.UserBatchRepository;
 import com.eprcuen.userservice.persistence.repositories.UserRepository;
-import com.eprcuen.userservice.persistence.repositories.ValidationTokenRepository;
+import com.eprcuen.userservice.services.contracts.ActivationTokenService;
+import com.eprcuen.userservice.services.contracts.EmailRegistry;
+import com.eprcuen.userservice.services.contracts.OutboxService;
+import com.eprcuen.userservice.services.contracts.PasswordHasher;
+import com.eprcuen.userservice.services.contracts.UserListCache;
+import com.eprcuen.userservice.services.contracts.UserLookupService;
+import com.eprcuen.userservice.services.contracts.UserSearchService;
 import com.eprcuen.userservice.services.contracts.UserService;
 import com.eprcuen.userservice.utils.mappers.UserMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the UserService interface.
@@ -38,70 +56,172 @@ import java.util.concurrent.CompletableFuture;
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class UserServiceImpl implements UserService {
+    private static final StructuredLogger log = StructuredLogger.of(UserServiceImpl.class);
+    private static final int BULK_BATCH_SIZE = 500;
+    private static final String EMAIL_IN_USE = "Email is already in use";
+    private static final String ALREADY_ACTIVE = "Account is already activated";
+    private static final String USER_TOPIC = "user-topic";
+    private static final String STAGE_TIMER = "user.create.stage";
     private final UserRepository userRepository;
-    private final ValidationTokenRepository validationTokenRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final KafkaTemplate<String, Object> userTemplate;
+    private final UserBatchRepository userBatchRepository;
+    private final ActivationTokenService activationTokenService;
+    private final PasswordHasher passwordHasher;
+    private final EmailRegistry emailRegistry;
+    private final UserLookupService userLookupService;
+    private final UserSearchService userSearchService;
+    private final UserListCache userListCache;
+    private final OutboxService outboxService;
+    private final TransactionalOperator transactionalOperator;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Creates a new user in the repository and maps it to a UserResponse DTO.
+     * The request is validated and the password hashed before the transaction starts; the user, its
+     * validation token, the HighMsg event for the notification service and the UserChangedMsg for the
+     * other instances are then written in one transaction, and the events are published later by the
+     * outbox relay, so the broker is never on the request path. The local search index and the cached
+     * listings are updated once the transaction has committed.
+     * Every stage is timed in user.create.stage, tagged with the stage and its outcome.
      *
      * @param request the UserRequest containing user details
      * @return a Mono of UserResponse containing the created user
      */
     @Override
-    @Transactional
     public Mono<UserResponse> createUser(UserRequest request) {
-        log.info(WriteLog.logInfo("--> creating user service"));
-        this.validateUser(request);
+        log.info("--> creating user service");
         var user = UserMapper.mapTOEntity(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        Mono<UserApp> userNew =  userRepository.save(user)
-                .doOnSuccess(nu -> {
-                    log.info(WriteLog.logInfo("--> user created successfully with ID: " + nu.getId()));
-                    var token = this.generateValidationToken(user.getEmail());
-
-                    CompletableFuture<SendResult<String, Object>> future = userTemplate.send("user-topic",
-                            HighMsg.builder()
-                                    .email(user.getEmail())
-                                    .username(user.getUsername())
-                                    .validationToken(token.getToken())
-                                    .build());
-                    future.whenCompleteAsync((result, throwable) -> {
-                        if (throwable != null) {
-                            log.error(WriteLog.logError("--> Error sending message to broker: " + throwable.getMessage()));
-                        } else {
-                            log.info(WriteLog.logInfo("--> Message sent to broker successfully"));
-                        }
-                });
+        return this.timed("validate", this.validateUser(request))
+                .then(this.timed("hash", passwordHasher.hash(request.getPassword())))
+                .flatMap(hash -> {
+                    user.setPassword(hash);
+                    return this.timed("insert", userRepository.save(user))
+                            .onErrorMap(DataIntegrityViolationException.class,
+                                    err -> new BadRequestException(List.of(EMAIL_IN_USE)))
+                            .flatMap(nu -> this.timed("token", activationTokenService.issue(nu.getEmail()))
+                                    .flatMap(token -> this.timed("outbox", outboxService.enqueue(USER_TOPIC,
+                                            nu.getEmail(), this.toHighMsg(nu, token))))
+                                    .then(outboxService.enqueue(UserLookupServiceImpl.USER_CHANGED_TOPIC,
+                                            nu.getEmail(), this.toChangedMsg(nu)))
+                                    .thenReturn(nu))
+                            .as(transactionalOperator::transactional);
+                })
+                .doOnNext(nu -> {
+                    log.info("--> user created successfully", "id", nu.getId());
+                    emailRegistry.register(nu.getEmail());
+                    userSearchService.index(nu);
+                    userListCache.changed();
+                })
+                .map(UserMapper::mapToDto)
+                .doOnError(err -> log.error("Error creating user", err))
+                .transform(mono -> this.timed("total", mono));
+    }
 
+    /**
+     * Times a stage of createUser from subscription to termination.
+     *
+     * @param stage the name of the stage
+     * @param mono  the stage
+     * @return the stage, recording its duration in user.create.stage when it terminates
+     */
+    private <T> Mono<T> timed(String stage, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(Timer.builder(STAGE_TIMER)
+                    .tag("stage", stage)
+                    .tag("outcome", switch (signal) {
+                        case ON_ERROR -> "error";
+                        case CANCEL -> "cancelled";
+                        default -> "success";
+                    })
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)));
         });
-        return userNew
-                .map(UserMapper::mapToDto)
-                .doOnError(err -> log.error(WriteLog.logError("Error creating user: " + err.getMessage())))
-                .flatMap(userResponse -> {
-                    ValidationToken token = generateValidationToken(user.getEmail());
-                    return validationTokenRepository.save(token)
-                            .thenReturn(userResponse);
-                });
     }
 
     /**
      * Retrieves all users from the repository and maps them to UserResponse DTOs.
+     * Users are emitted as they are read from the database, so the table is never held in memory.
      *
      * @return a Flux of UserResponse containing all users
      */
     @Override
     @Transactional(readOnly = true)
-    public Flux<List<UserResponse>> getAllUsers() {
-        log.info(WriteLog.logInfo("--> retrieving all users service"));
-        return userRepository.findAll()
+    public Flux<UserResponse> getAllUsers() {
+        log.info("--> retrieving all users service");
+        return userRepository.findAllSummaries()
+                .map(UserMapper::mapToDto)
+                .doOnError(err -> log.error("Error retrieving users", err));
+    }
+
+    /**
+     * Retrieves a page of users using keyset pagination.
+     *
+     * @param afterId the id of the last user of the previous page, or null for the first page
+     * @param limit   the maximum number of users to return
+     * @return a Flux of UserResponse ordered by id
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<UserResponse> getUsersPage(Long afterId, int limit) {
+        log.info("--> retrieving users page service", "afterId", afterId);
+        return userRepository.findPage(afterId == null ? 0L : afterId, limit)
                 .map(UserMapper::mapToDto)
-                .collectList()
-                .flux()
-                .doOnError(err -> log.error(WriteLog.logError("Error retrieving users: " + err.getMessage())));
+                .doOnError(err -> log.error("Error retrieving users", err));
+    }
+
+    /**
+     * Imports users in bulk.
+     * Rows are grouped in batches; each batch is validated and hashed with as many rows in flight as the
+     * hasher has threads, so a large import waits for hashing slots instead of being rejected, and is written with
+     * multi-row INSERT statements in a single transaction, together with its HighMsg and UserChangedMsg
+     * outbox events.
+     * One result is emitted per input row, in input order.
+     *
+     * @param requests the Flux of UserRequest to import
+     * @return a Flux of BulkUserResponse with the result of every row
+     */
+    @Override
+    public Flux<BulkUserResponse> importUsers(Flux<UserRequest> requests) {
+        log.info("--> importing users service");
+        return requests
+                .index()
+                .buffer(BULK_BATCH_SIZE)
+                .concatMap(this::importBatch);
+    }
+
+    /**
+     * Activates the account a token was issued for.
+     * The token is consumed, the user enabled and the UserChangedMsg that makes every other instance evict
+     * its cached copy of the user enqueued in the outbox in a single transaction; the token is forgotten and
+     * the local caches are evicted once it has committed. The user is read from the repository on the
+     * transaction's connection rather than through the lookup cache, whose misses take a connection of their own.
+     * Only a disabled account can be enabled, so a token presented again, on any instance, is rejected.
+     *
+     * @param token the activation token received by email
+     * @return a Mono of UserResponse containing the activated user
+     */
+    @Override
+    public Mono<UserResponse> activateUser(String token) {
+        log.info("--> activating user service");
+        return activationTokenService.redeem(token)
+                .flatMap(email -> userRepository.enableByEmail(email)
+                        .flatMap(updated -> updated == 0
+                                ? userRepository.existsByEmail(email).flatMap(exists -> Mono.<String>error(exists
+                                        ? new TokenException(ALREADY_ACTIVE)
+                                        : new NotFoundException("User not found")))
+                                : Mono.just(email)))
+                .flatMap(userRepository::findByEmail)
+                .flatMap(user -> outboxService.enqueue(UserLookupServiceImpl.USER_CHANGED_TOPIC,
+                                user.getEmail(), this.toChangedMsg(user))
+                        .thenReturn(user))
+                .as(transactionalOperator::transactional)
+                .doOnNext(user -> {
+                    activationTokenService.redeemed(token);
+                    userLookupService.evict(this.toChangedMsg(user));
+                })
+                .map(UserMapper::mapToDto)
+                .doOnError(err -> log.error("Error activating user", err));
     }
 
     /**
@@ -109,11 +229,34 @@ public class UserServiceImpl implements UserService {
      * Checks for required fields, email format, password strength, and uniqueness of email.
      *
      * @param request the UserRequest containing user details to validate
-     * @throws BadRequestException if any validation errors are found
+     * @return an empty Mono, or a Mono error with a BadRequestException if any validation errors are found
      */
-    @Transactional(readOnly = true)
-    private void validateUser(UserRequest request){
-        log.info(WriteLog.logInfo("--> validating user..."));
+    private Mono<Void> validateUser(UserRequest request){
+        log.info("--> validating user...");
+        List<String> errors = this.checkUser(request);
+        Mono<Boolean> emailInUse = request.getEmail() == null || request.getEmail().isEmpty()
+                ? Mono.just(false)
+                : emailRegistry.isRegistered(request.getEmail());
+        return emailInUse.flatMap(exists -> {
+            if (exists) {
+                errors.add(EMAIL_IN_USE);
+            }
+            if(!errors.isEmpty()){
+                log.error("Validation errors", "errors", errors);
+                return Mono.error(new BadRequestException(errors));
+            }
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Checks the fields of a user request that can be validated without the database:
+     * required fields, email format and password strength.
+     *
+     * @param request the UserRequest containing user details to check
+     * @return the list of validation errors, empty when the request is valid
+     */
+    private List<String> checkUser(UserRequest request){
         List<String> errors = new ArrayList<>();
         if (request.getUsername() == null || request.getUsername().isEmpty()) {
             errors.add("Username is required");
@@ -123,66 +266,195 @@ public class UserServiceImpl implements UserService {
         } else if (!ValidationHelper.validateEmail(request.getEmail())) {
             errors.add("Email format is invalid");
         }
-       userRepository.existsByEmail(request.getEmail())
-               .flatMap(exists -> {
-                   if (exists) {
-                       errors.add("Email is already in use");
-                   }
-                   return Mono.empty();
-               });
-
-
         if (request.getPassword() == null || request.getPassword().isEmpty()) {
             errors.add("Password is required");
         } else if (!request.getPassword().equals(request.getConfirmPassword())) {
             errors.add("Password and Confirm Password do not match");
-        } else if (!ValidationHelper.validatePassword(request.getPassword())) {
-            errors.add("Password must be at least 8 characters long, contain at least one uppercase letter, " +
-                    "one lowercase letter, one digit, and one special character");
+        } else {
+            int violations = PasswordPolicy.check(request.getPassword());
+            if (violations != 0) {
+                PasswordPolicy.violations(violations).forEach(violation -> errors.add(violation.getMessage()));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Imports one batch of indexed user requests.
+     *
+     * @param batch the batch of user requests with their position in the import
+     * @return a Flux of BulkUserResponse with the result of every row of the batch, in input order
+     */
+    private Flux<BulkUserResponse> importBatch(List<Tuple2<Long, UserRequest>> batch) {
+        return Flux.fromIterable(batch)
+                .flatMap(row -> this.prepareRow(row.getT1(), row.getT2()), passwordHasher.concurrency())
+                .collectSortedList(Comparator.comparingLong(BulkRow::line))
+                .flatMapMany(this::persistBatch);
+    }
 
+    /**
+     * Validates one row of a bulk import and, when it is valid, builds its entity and validation token.
+     * A row whose password cannot be hashed because the backlog is still full, when other requests
+     * are also hashing, is rejected.
+     *
+     * @param line    the position of the row in the import
+     * @param request the UserRequest of the row
+     * @return a Mono with the prepared row
+     */
+    private Mono<BulkRow> prepareRow(long line, UserRequest request) {
+        List<String> errors = this.checkUser(request);
+        if (!errors.isEmpty()) {
+            return Mono.just(new BulkRow(line, request.getEmail(), errors, null, null));
         }
-        if(!errors.isEmpty()){
-            log.error(WriteLog.logError("Validation errors: " + errors));
-            throw new BadRequestException(errors);
+        var user = UserMapper.mapTOEntity(request);
+        return passwordHasher.hash(request.getPassword())
+                .map(hash -> {
+                    user.setPassword(hash);
+                    return new BulkRow(line, request.getEmail(), errors, user,
+                            activationTokenService.newToken(user.getEmail()));
+                })
+                .onErrorResume(ServiceUnavailableException.class, e -> {
+                    errors.add(e.getMessage());
+                    return Mono.just(new BulkRow(line, request.getEmail(), errors, null, null));
+                });
+    }
+
+    /**
+     * Rejects the rows whose email is repeated in the batch or already registered, and writes the remaining
+     * users, their tokens and their HighMsg and UserChangedMsg outbox events in one transaction. The local
+     * search index and the cached listings are updated once the transaction has committed.
+     * The registration check only queries the emails the Bloom filter may know, and the filter can lag
+     * behind users created by other instances; when the insert hits the unique key anyway, the batch is
+     * checked again against the database for every row and written again, and if a concurrent import
+     * still wins the race the rows are written one by one, so each of them gets its own result.
+     *
+     * @param rows the prepared rows of the batch, in input order
+     * @return a Flux of BulkUserResponse with the result of every row, in input order
+     */
+    private Flux<BulkUserResponse> persistBatch(List<BulkRow> rows) {
+        Set<String> batchEmails = new HashSet<>();
+        for (BulkRow row : rows) {
+            if (row.errors().isEmpty() && !batchEmails.add(row.email().toLowerCase())) {
+                row.errors().add("Email is duplicated in the import");
+            }
         }
+        return this.rejectRegistered(rows, false)
+                .then(Mono.defer(() -> this.insertBatch(rows)))
+                .onErrorResume(DataIntegrityViolationException.class, err -> {
+                    log.warn("Bulk insert hit a registered email, checking every row", "rows", rows.size());
+                    return this.rejectRegistered(rows, true)
+                            .then(Mono.defer(() -> this.insertBatch(rows)))
+                            .onErrorResume(DataIntegrityViolationException.class, e -> this.insertEachRow(rows));
+                })
+                .flatMapMany(ids -> Flux.fromIterable(rows).map(row -> this.toBulkResponse(row, ids)))
+                .doOnError(err -> log.error("Error importing users", err));
     }
 
     /**
-     * Generates a validation token for the user.
-     * The token is a UUID string and has an expiry date set to 1 day from now.
+     * Rejects the valid rows whose email is already registered.
      *
-     * @param email the email of the user for whom the token is generated
-     * @return a ValidationToken object containing the token and expiry date
+     * @param rows  the prepared rows of the batch
+     * @param exact true to check every row against the database, false to check only the emails the Bloom
+     *              filter may know
+     * @return a Mono that completes when the registered rows have been rejected
      */
-    private ValidationToken generateValidationToken(String email) {
-        log.info(WriteLog.logInfo("--> Generating validation Token..."));
-        return ValidationToken.builder()
-                .token(UUID.randomUUID().toString())
-                .expiryDate(LocalDateTime.now().plusDays(1)) // Token valid for 1 day
-                .email(email)
-                .build();
+    private Mono<Void> rejectRegistered(List<BulkRow> rows, boolean exact) {
+        List<String> candidates = rows.stream()
+                .filter(row -> row.errors().isEmpty())
+                .map(BulkRow::email)
+                .filter(email -> exact || emailRegistry.mightBeRegistered(email))
+                .toList();
+        return userBatchRepository.findExistingEmails(candidates)
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet())
+                .doOnNext(existing -> rows.stream()
+                        .filter(row -> row.errors().isEmpty() && existing.contains(row.email().toLowerCase()))
+                        .forEach(row -> row.errors().add(EMAIL_IN_USE)))
+                .then();
     }
 
-    private void  respaldo(){
-       /* Mono<UserApp> userNew =  userRepository.save(user)
-                .doOnSuccess(nu -> {
-                    log.info(WriteLog.logInfo("--> user created successfully with ID: " + nu.getId()));
-                    var token = this.generateValidationToken(user.getEmail());
-
-                    CompletableFuture<SendResult<String, Object>> future = userTemplate.send("user-topic",
-                            HighMsg.builder()
-                                    .email(user.getEmail())
-                                    .username(user.getUsername())
-                                    .validationToken(token.getToken())
-                                    .build());
-                    future.whenCompleteAsync((result, throwable) -> {
-                        if (throwable != null) {
-                            log.error(WriteLog.logError("--> Error sending message to broker: " + throwable.getMessage()));
-                        } else {
-                            log.info(WriteLog.logInfo("--> Message sent to broker successfully"));
-                        }
+    /**
+     * Writes the valid rows, their tokens and their outbox events in one transaction.
+     *
+     * @param rows the prepared rows
+     * @return a Mono with the generated ids keyed by email
+     */
+    private Mono<Map<String, Long>> insertBatch(List<BulkRow> rows) {
+        List<BulkRow> valid = rows.stream().filter(row -> row.errors().isEmpty()).toList();
+        List<UserApp> users = valid.stream().map(BulkRow::user).toList();
+        List<ValidationToken> tokens = valid.stream().map(BulkRow::token).toList();
+        return userBatchRepository.insertUsers(users)
+                .flatMap(ids -> {
+                    List<OutboxEvent> events = new ArrayList<>(valid.size() * 2);
+                    for (BulkRow row : valid) {
+                        row.user().setId(ids.get(row.user().getEmail()));
+                        events.add(outboxService.toEvent(USER_TOPIC, row.user().getEmail(),
+                                this.toHighMsg(row.user(), row.token())));
+                        events.add(outboxService.toEvent(UserLookupServiceImpl.USER_CHANGED_TOPIC,
+                                row.user().getEmail(), this.toChangedMsg(row.user())));
+                    }
+                    return activationTokenService.storeAll(tokens)
+                            .then(outboxService.enqueueAll(events))
+                            .thenReturn(ids);
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(ids -> {
+                    users.forEach(user -> {
+                        emailRegistry.register(user.getEmail());
+                        userSearchService.index(user);
                     });
+                    userListCache.changed();
+                });
+    }
+
+    /**
+     * Writes the valid rows one transaction at a time, rejecting the ones whose email is taken.
+     *
+     * @param rows the prepared rows
+     * @return a Mono with the generated ids keyed by email
+     */
+    private Mono<Map<String, Long>> insertEachRow(List<BulkRow> rows) {
+        return Flux.fromIterable(rows)
+                .filter(row -> row.errors().isEmpty())
+                .concatMap(row -> this.insertBatch(List.of(row))
+                        .onErrorResume(DataIntegrityViolationException.class, err -> {
+                            row.errors().add(EMAIL_IN_USE);
+                            return Mono.just(Map.of());
+                        }))
+                .<Map<String, Long>>collect(HashMap::new, Map::putAll);
+    }
 
-                });*/
+    private HighMsg toHighMsg(UserApp user, ValidationToken token) {
+        return HighMsg.builder()
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .validationToken(token.getToken())
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private UserChangedMsg toChangedMsg(UserApp user) {
+        return UserChangedMsg.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .build();
+    }
+
+    private BulkUserResponse toBulkResponse(BulkRow row, Map<String, Long> ids) {
+        boolean created = row.errors().isEmpty();
+        return BulkUserResponse.builder()
+                .line(row.line())
+                .email(row.email())
+                .status(created ? BulkUserResponse.CREATED : BulkUserResponse.REJECTED)
+                .id(created ? ids.get(row.email()) : null)
+                .errors(created ? null : row.errors())
+                .build();
+    }
+
+    /**
+     * One row of a bulk import, with its validation errors or its entity and validation token.
+     */
+    private record BulkRow(long line, String email, List<String> errors, UserApp user, ValidationToken token) {
     }
 }
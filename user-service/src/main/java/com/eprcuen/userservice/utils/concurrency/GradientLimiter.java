@@ -0,0 +1,95 @@
+package com.eprcuen.userservice.utils.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter whose limit follows the measured latency.
+ * It keeps a fast and a slow moving average of the request latency; while the fast one stays within
+ * tolerance of the slow baseline the limit grows by about its square root, and as latency rises the
+ * limit is scaled down by the ratio of the two (never below half). Failed requests cut the limit
+ * multiplicatively. The limit only grows while at least half of it is in use.
+ *
+ * @author caito
+ *
+ */
+public class GradientLimiter {
+    private static final double SHORT_WINDOW = 0.2;
+    private static final double LONG_WINDOW = 0.01;
+    private static final double BACKOFF = 0.9;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("invalid concurrency limit bounds");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot if the route is under its limit.
+     *
+     * @return true if the request may proceed and must later call {@link #release(long, boolean)}
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the request outcome to the limit.
+     *
+     * @param rttNanos the request latency
+     * @param dropped  true if the request failed because of overload (5xx or error)
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        this.update(rttNanos, dropped, inFlightBefore);
+    }
+
+    private synchronized void update(long rttNanos, boolean dropped, int inFlightBefore) {
+        double current = limit;
+        if (dropped) {
+            limit = Math.max(minLimit, current * BACKOFF);
+            return;
+        }
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+        } else {
+            shortRtt += (rttNanos - shortRtt) * SHORT_WINDOW;
+            longRtt += (rttNanos - longRtt) * LONG_WINDOW;
+        }
+        if (inFlightBefore < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - smoothing) + target * smoothing));
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
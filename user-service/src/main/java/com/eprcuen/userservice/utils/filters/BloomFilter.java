@@ -0,0 +1,118 @@
+package com.eprcuen.userservice.utils.filters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings.
+ * Answers "definitely absent" or "possibly present" using a fixed bit array sized from the expected
+ * number of insertions and the desired false-positive probability. Bits are set with CAS on an
+ * AtomicLongArray, so concurrent puts and lookups need no locking.
+ *
+ * @author caito
+ *
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLong bitCount = new AtomicLong();
+
+    /**
+     * Creates a Bloom filter sized for the given number of insertions and false-positive probability.
+     *
+     * @param expectedInsertions the number of elements the filter is expected to hold
+     * @param fpp                the desired false-positive probability at that size (between 0 and 1)
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    /**
+     * Adds the given value to the filter.
+     *
+     * @param value the value to add
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long combined = (h1 + (long) i * h2) & Long.MAX_VALUE;
+            this.setBit(combined % bitSize);
+        }
+    }
+
+    /**
+     * Checks whether the given value may have been added to the filter.
+     *
+     * @param value the value to check
+     * @return false if the value was definitely never added, true if it possibly was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long combined = (h1 + (long) i * h2) & Long.MAX_VALUE;
+            long index = combined % bitSize;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the current false-positive probability from the fraction of bits set.
+     *
+     * @return the expected false-positive probability of a lookup
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount.get() / bitSize, hashFunctions);
+    }
+
+    /**
+     * @return the memory used by the bit array, in bytes
+     */
+    public long memoryBytes() {
+        return bitSize / 8;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        bitCount.incrementAndGet();
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes of the value, finished with the MurmurHash3 mixer
+     * so both 32-bit halves are well distributed for double hashing.
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,146 @@
+package com.eprcuen.userservice.utils.idempotency;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-memory store of idempotent operations keyed by idempotency key.
+ * Each key maps to the cached Mono of the first request, so concurrent duplicates attach to the in-flight
+ * operation and later duplicates replay its result. Failed operations are forgotten so they can be retried.
+ * The store is split in lock-striped segments, each bounded in size (oldest entries evicted first) and
+ * with entries expiring after the TTL.
+ *
+ * @author caito
+ *
+ */
+public class IdempotencyStore<T> {
+    private final Segment<T>[] segments;
+    private final int mask;
+    private final long ttlNanos;
+
+    /**
+     * The result of claiming a key.
+     *
+     * @param result the shared result of the operation
+     * @param owner  true if this call started the operation, false if it attached to an existing one
+     */
+    public record Claim<T>(Mono<T> result, boolean owner) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public IdempotencyStore(int maximumSize, Duration ttl, int stripes) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        int capacity = Math.max(1, (maximumSize + count - 1) / count);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(capacity);
+        }
+        this.mask = count - 1;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Claims a key, starting the operation when the key is new or expired.
+     * The operation runs to completion even if the caller cancels, so a retry finds its result.
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint of the request, to detect a key reused with a different request
+     * @param action      the operation to run for a new key
+     * @return the claim, or null if the key is held by a request with a different fingerprint
+     */
+    public Claim<T> claim(String key, String fingerprint, Supplier<Mono<T>> action) {
+        Segment<T> segment = segments[spread(key.hashCode()) & mask];
+        long now = System.nanoTime();
+        Entry<T> entry;
+        boolean owner = false;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && entry.expiresAt - now < 0) {
+                segment.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                Entry<T> created = new Entry<>(fingerprint, now + ttlNanos);
+                created.result = Mono.defer(action)
+                        .doOnError(err -> {
+                            synchronized (segment) {
+                                segment.remove(key, created);
+                            }
+                        })
+                        .cache();
+                segment.put(key, created);
+                entry = created;
+                owner = true;
+            }
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return null;
+        }
+        if (owner) {
+            entry.result.subscribe(value -> { }, err -> { });
+        }
+        return new Claim<>(entry.result, owner);
+    }
+
+    /**
+     * Removes the expired entries of every segment.
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        for (Segment<T> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<T>> entries = segment.values().iterator();
+                while (entries.hasNext() && entries.next().expiresAt - now < 0) {
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<T> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry<T> {
+        private final String fingerprint;
+        private final long expiresAt;
+        private Mono<T> result;
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Insertion-ordered map evicting its oldest entry past capacity; all entries share the TTL,
+     * so the oldest entry is also the first to expire.
+     */
+    private static final class Segment<T> extends LinkedHashMap<String, Entry<T>> {
+        private final int capacity;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+            return size() > capacity;
+        }
+    }
+}
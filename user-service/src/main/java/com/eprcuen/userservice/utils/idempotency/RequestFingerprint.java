@@ -0,0 +1,46 @@
+package com.eprcuen.userservice.utils.idempotency;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fingerprint of a request body, used to detect an idempotency key reused with a different request.
+ * The fingerprint is the hex SHA-256 of the canonical form of the body: its fields in a fixed order, each
+ * written as its UTF-8 length followed by its bytes, with -1 for a null field, so two different bodies never
+ * share a canonical form and a collision takes a SHA-256 collision.
+ *
+ * @author caito
+ *
+ */
+public final class RequestFingerprint {
+
+    private RequestFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of the given fields.
+     *
+     * @param fields the fields of the body, always in the same order
+     * @return the hex SHA-256 of the canonical form
+     */
+    public static String of(String... fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : fields) {
+                if (field == null) {
+                    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+                    continue;
+                }
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Error fingerprinting the request", e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.eprcuen.userservice.utils.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JsonBuffer appends JSON tokens as UTF-8 to a growable byte array.
+ * Strings are escaped the way Jackson does by default: quotes, backslashes and control characters,
+ * and surrogates (supplementary characters included) as uppercase unicode escapes, with every other
+ * character written as UTF-8. Buffers are reused per thread through {@link #local()}.
+ *
+ * @author caito
+ */
+final class JsonBuffer {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final ThreadLocal<JsonBuffer> LOCAL = ThreadLocal.withInitial(() -> new JsonBuffer(INITIAL_CAPACITY));
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+    private int size;
+
+    JsonBuffer(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Returns the buffer of the current thread, emptied.
+     *
+     * @return a reset buffer
+     */
+    static JsonBuffer local() {
+        JsonBuffer buffer = LOCAL.get();
+        if (buffer.bytes.length > MAX_RETAINED_CAPACITY) {
+            buffer.bytes = new byte[INITIAL_CAPACITY];
+        }
+        buffer.size = 0;
+        return buffer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    byte[] copy(int from) {
+        return Arrays.copyOfRange(bytes, from, size);
+    }
+
+    void writeByte(int b) {
+        this.ensure(1);
+        bytes[size++] = (byte) b;
+    }
+
+    void write(byte[] value) {
+        this.ensure(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+    }
+
+    void writeLong(Long value) {
+        if (value == null) {
+            this.write(NULL);
+            return;
+        }
+        long v = value;
+        if (v == Long.MIN_VALUE) {
+            this.write(Long.toString(v).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        this.ensure(20);
+        if (v < 0) {
+            bytes[size++] = '-';
+            v = -v;
+        }
+        int end = size + digits(v);
+        int position = end;
+        do {
+            bytes[--position] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        size = end;
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            this.write(NULL);
+            return;
+        }
+        int length = value.length();
+        this.ensure(length * 6 + 2);
+        byte[] out = bytes;
+        int position = size;
+        out[position++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    out[position++] = (byte) c;
+                } else {
+                    position = escape(out, position, c);
+                }
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | c >> 6);
+                out[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                position = unicodeEscape(out, position, c);
+            } else {
+                out[position++] = (byte) (0xE0 | c >> 12);
+                out[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        out[position++] = '"';
+        size = position;
+    }
+
+    private static int escape(byte[] out, int position, char c) {
+        char simple = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            default -> 0;
+        };
+        if (simple == 0) {
+            return unicodeEscape(out, position, c);
+        }
+        out[position++] = '\\';
+        out[position++] = (byte) simple;
+        return position;
+    }
+
+    private static int unicodeEscape(byte[] out, int position, char c) {
+        out[position++] = '\\';
+        out[position++] = 'u';
+        out[position++] = HEX[c >> 12 & 0xF];
+        out[position++] = HEX[c >> 8 & 0xF];
+        out[position++] = HEX[c >> 4 & 0xF];
+        out[position++] = HEX[c & 0xF];
+        return position;
+    }
+
+    private static int digits(long v) {
+        int digits = 1;
+        for (long limit = 10; digits < 19 && v >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
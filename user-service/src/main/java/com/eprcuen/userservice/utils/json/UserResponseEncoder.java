@@ -0,0 +1,177 @@
+package com.eprcuen.userservice.utils.json;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserResponseEncoder writes UserResponse payloads as JSON without going through Jackson.
+ * The fields are written by hand with pre-encoded names straight into buffers of the server's
+ * DataBufferFactory (pooled Netty buffers under Reactor Netty), so there is no reflection, no
+ * generator and no intermediate String per response. The output is the same as Jackson's with the
+ * default configuration.
+ * A Flux is written as a JSON array in buffers of {@value #ROWS_PER_BUFFER} rows, or as one
+ * buffer per row for application/x-ndjson so every row is still flushed as soon as it is read.
+ * When a row cache is given, the encoded bytes of every row are kept by user id and reused while the
+ * row is equal to the cached one; changed users must be evicted with {@link #evict(Long)}.
+ *
+ * @author caito
+ */
+public class UserResponseEncoder extends AbstractEncoder<UserResponse> implements HttpMessageEncoder<UserResponse> {
+    private static final int ROWS_PER_BUFFER = 64;
+    private static final int ESTIMATED_ROW_BYTES = 128;
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] USERNAME = ascii(",\"username\":");
+    private static final byte[] EMAIL = ascii(",\"email\":");
+    private static final byte[] TELEPHONE = ascii(",\"telephone\":");
+    private static final byte[] ROLE = ascii(",\"role\":");
+    private static final byte[] EMPTY_ARRAY = ascii("[]");
+    private static final byte[] END_ARRAY = ascii("]");
+    private final Cache<Long, EncodedRow> rows;
+
+    /**
+     * @param rows the cache of encoded rows, or null to encode every row
+     */
+    public UserResponseEncoder(Cache<Long, EncodedRow> rows) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return UserResponse.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return List.of(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends UserResponse> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                    .map(user -> this.encodeValue(user, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+        if (mimeType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+            return Flux.from(inputStream).map(user -> {
+                JsonBuffer out = JsonBuffer.local();
+                this.writeRow(user, out);
+                out.writeByte('\n');
+                return toDataBuffer(out, bufferFactory);
+            });
+        }
+        return Flux.defer(() -> {
+            boolean[] empty = {true};
+            return Flux.from(inputStream)
+                    .buffer(ROWS_PER_BUFFER)
+                    .map(batch -> {
+                        JsonBuffer out = JsonBuffer.local();
+                        for (UserResponse user : batch) {
+                            out.writeByte(empty[0] ? '[' : ',');
+                            empty[0] = false;
+                            this.writeRow(user, out);
+                        }
+                        return toDataBuffer(out, bufferFactory);
+                    })
+                    .concatWith(Mono.fromSupplier(() -> bufferFactory.wrap(empty[0] ? EMPTY_ARRAY : END_ARRAY)));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(UserResponse value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        JsonBuffer out = JsonBuffer.local();
+        this.writeRow(value, out);
+        return toDataBuffer(out, bufferFactory);
+    }
+
+    /**
+     * Encodes a list of users as a JSON array.
+     *
+     * @param users the users to encode
+     * @return the UTF-8 JSON bytes
+     */
+    public byte[] encodeList(List<UserResponse> users) {
+        JsonBuffer out = new JsonBuffer(users.size() * ESTIMATED_ROW_BYTES + 2);
+        out.writeByte('[');
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                out.writeByte(',');
+            }
+            this.writeRow(users.get(i), out);
+        }
+        out.writeByte(']');
+        return out.copy(0);
+    }
+
+    /**
+     * Drops the cached encoding of a user.
+     *
+     * @param id the id of the changed user
+     */
+    public void evict(Long id) {
+        if (rows != null && id != null) {
+            rows.invalidate(id);
+        }
+    }
+
+    private void writeRow(UserResponse user, JsonBuffer out) {
+        if (rows == null || user.getId() == null) {
+            writeFields(user, out);
+            return;
+        }
+        EncodedRow cached = rows.getIfPresent(user.getId());
+        if (cached != null && cached.user().equals(user)) {
+            out.write(cached.json());
+            return;
+        }
+        int start = out.size();
+        writeFields(user, out);
+        rows.put(user.getId(), new EncodedRow(user, out.copy(start)));
+    }
+
+    private static void writeFields(UserResponse user, JsonBuffer out) {
+        out.write(ID);
+        out.writeLong(user.getId());
+        out.write(USERNAME);
+        out.writeString(user.getUsername());
+        out.write(EMAIL);
+        out.writeString(user.getEmail());
+        out.write(TELEPHONE);
+        out.writeString(user.getTelephone());
+        out.write(ROLE);
+        out.writeString(user.getRole());
+        out.writeByte('}');
+    }
+
+    private static DataBuffer toDataBuffer(JsonBuffer out, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(out.size());
+        return buffer.write(out.array(), 0, out.size());
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The encoded bytes of a user, with the values they were encoded from.
+     */
+    public record EncodedRow(UserResponse user, byte[] json) {
+    }
+}
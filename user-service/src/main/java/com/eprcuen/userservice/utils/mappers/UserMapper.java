@@ -3,6 +3,7 @@ package com.eprcuen.userservice.utils.mappers;
 import com.eprcuen.userservice.api.models.requests.UserRequest;
 import com.eprcuen.userservice.api.models.responses.UserResponse;
 import com.eprcuen.userservice.persistence.entities.UserApp;
+import com.eprcuen.userservice.persistence.projections.UserSummary;
 import reactor.core.publisher.Mono;
 
 /**
@@ -45,4 +46,20 @@ public class UserMapper {
                 .build();
     }
 
+    /**
+     * Maps a UserSummary projection to a UserResponse object.
+     *
+     * @param user the UserSummary to map
+     * @return a UserResponse object with the mapped fields
+     */
+    public static UserResponse mapToDto(UserSummary user){
+        return UserResponse.builder()
+                .id(user.id())
+                .username(user.username())
+                .email(user.email())
+                .telephone(user.telephone())
+                .role(user.role())
+                .build();
+    }
+
 }
@@ -0,0 +1,96 @@
+package com.eprcuen.userservice.utils.pool;
+
+import reactor.pool.AllocationStrategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AdaptiveAllocationStrategy is a reactor-pool allocation strategy whose size limit moves between two bounds.
+ * {@link #adjust(int, int)} grows the limit by one step while acquires are pending and shrinks it while
+ * more than a step of connections sit idle. Shrinking never closes connections: permits above the limit
+ * are simply not granted again once released, and idle connections are closed by the pool eviction.
+ *
+ * @author caito
+ */
+public class AdaptiveAllocationStrategy implements AllocationStrategy {
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final int pendingThreshold;
+    private final AtomicInteger granted = new AtomicInteger();
+    private volatile int limit;
+
+    public AdaptiveAllocationStrategy(int minSize, int maxSize, int initialLimit, int step, int pendingThreshold) {
+        if (minSize < 0 || maxSize < Math.max(1, minSize) || step < 1) {
+            throw new IllegalArgumentException("invalid adaptive pool bounds");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = step;
+        this.pendingThreshold = Math.max(1, pendingThreshold);
+        this.limit = Math.min(maxSize, Math.max(minSize, initialLimit));
+    }
+
+    /**
+     * Moves the limit one step according to the current pool pressure.
+     *
+     * @param pending the number of acquires waiting for a connection
+     * @param idle    the number of idle connections
+     * @return the new limit
+     */
+    public int adjust(int pending, int idle) {
+        int current = limit;
+        if (pending >= pendingThreshold) {
+            limit = Math.min(maxSize, current + step);
+        } else if (pending == 0 && idle > step) {
+            limit = Math.max(Math.max(1, minSize), current - step);
+        }
+        return limit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public int estimatePermitCount() {
+        return Math.max(0, limit - granted.get());
+    }
+
+    @Override
+    public int getPermits(int desired) {
+        if (desired <= 0) {
+            return 0;
+        }
+        for (;;) {
+            int current = granted.get();
+            int permits = Math.min(desired, limit - current);
+            if (permits <= 0) {
+                return 0;
+            }
+            if (granted.compareAndSet(current, current + permits)) {
+                return permits;
+            }
+        }
+    }
+
+    @Override
+    public int permitGranted() {
+        return granted.get();
+    }
+
+    @Override
+    public int permitMinimum() {
+        return minSize;
+    }
+
+    @Override
+    public int permitMaximum() {
+        return limit;
+    }
+
+    @Override
+    public void returnPermits(int returned) {
+        granted.addAndGet(-returned);
+    }
+}
@@ -0,0 +1,67 @@
+package com.eprcuen.userservice.utils.pool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * TimedConnectionFactory records how long callers wait to acquire a connection from the pool.
+ * The wait includes the time spent pending when the pool is exhausted, so r2dbc.pool.acquire
+ * shows when the pool, not the database, is the bottleneck.
+ * It unwraps to the pool, so Spring Boot still binds the r2dbc.pool.* gauges to it.
+ *
+ * @author caito
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+    private final ConnectionPool pool;
+    private final MeterRegistry meterRegistry;
+
+    public TimedConnectionFactory(ConnectionPool pool, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return pool.create()
+                    .doOnSuccess(connection -> sample.stop(this.timer("success")))
+                    .doOnError(err -> sample.stop(this.timer("error")));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return pool;
+    }
+
+    @Override
+    public void dispose() {
+        pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return pool.isDisposed();
+    }
+
+    private Timer timer(String outcome) {
+        return Timer.builder("r2dbc.pool.acquire")
+                .description("Time to acquire a connection from the pool")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.eprcuen.userservice.utils.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by client, implemented with the generic cell rate algorithm.
+ * A bucket is a single AtomicLong holding its theoretical arrival time, so acquiring is one CAS
+ * without locks. Buckets live in a bounded Caffeine cache and are evicted once idle long enough
+ * to be full again, which makes an evicted bucket indistinguishable from a new one.
+ *
+ * @author caito
+ *
+ */
+public class TokenBucketLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketLimiter(int capacity, double refillPerSecond, int maximumClients, Duration idleTimeout) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refill rate must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(idleTimeout.toNanos(), burstNanos)))
+                .build();
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @param client the client key
+     * @param now    the current System.nanoTime()
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public long tryAcquire(String client, long now) {
+        AtomicLong bucket = buckets.get(client, key -> new AtomicLong(now));
+        for (;;) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,183 @@
+package com.eprcuen.userservice.utils.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PrefixIndex maps string keys to ids and answers prefix queries in key order.
+ * The bulk of the entries lives in an immutable snapshot of two parallel sorted arrays (the keys and
+ * their ids), which costs one reference and one long per entry and is searched by binary search.
+ * Entries added since the last compaction go to a small concurrent delta set; queries merge both.
+ * compact folds the delta into a new snapshot and drops the entries that are no longer live, so
+ * readers never block and never see a partially built snapshot.
+ * A key may appear several times with different ids.
+ *
+ * @author caito
+ *
+ */
+public class PrefixIndex {
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new long[0]);
+    private final ConcurrentSkipListSet<Entry> delta = new ConcurrentSkipListSet<>();
+    private final AtomicInteger deltaSize = new AtomicInteger();
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * Adds an entry to the delta.
+     *
+     * @param key the key
+     * @param id  the id the key points to
+     */
+    public void add(String key, long id) {
+        if (delta.add(new Entry(key, id))) {
+            deltaSize.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the given entries. Entries already in the delta are kept.
+     *
+     * @param entries the entries, in any order; the list is sorted in place
+     */
+    public void load(List<Entry> entries) {
+        entries.sort(null);
+        String[] keys = new String[entries.size()];
+        long[] ids = new long[entries.size()];
+        int size = 0;
+        Entry last = null;
+        for (Entry entry : entries) {
+            if (!entry.equals(last)) {
+                keys[size] = entry.key();
+                ids[size++] = entry.id();
+                last = entry;
+            }
+        }
+        snapshot = new Snapshot(Arrays.copyOf(keys, size), Arrays.copyOf(ids, size));
+    }
+
+    /**
+     * Merges the delta into a new snapshot, keeping only the entries accepted by the given predicate.
+     * Must not run concurrently with itself or with load.
+     *
+     * @param live tells whether an entry still belongs to the index
+     */
+    public void compact(LivePredicate live) {
+        Snapshot current = snapshot;
+        List<Entry> pending = new ArrayList<>(delta);
+        String[] keys = new String[current.keys.length + pending.size()];
+        long[] ids = new long[keys.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < current.keys.length || j < pending.size()) {
+            String key;
+            long id;
+            if (j == pending.size()
+                    || i < current.keys.length && compare(current.keys[i], current.ids[i], pending.get(j)) <= 0) {
+                key = current.keys[i];
+                id = current.ids[i++];
+            } else {
+                Entry entry = pending.get(j++);
+                key = entry.key();
+                id = entry.id();
+            }
+            boolean duplicate = size > 0 && ids[size - 1] == id && keys[size - 1].equals(key);
+            if (!duplicate && live.test(key, id)) {
+                keys[size] = key;
+                ids[size++] = id;
+            }
+        }
+        snapshot = new Snapshot(Arrays.copyOf(keys, size), Arrays.copyOf(ids, size));
+        delta.removeAll(pending);
+        deltaSize.addAndGet(-pending.size());
+    }
+
+    /**
+     * Visits the entries whose key starts with the given prefix, in key order, until the visitor stops.
+     *
+     * @param prefix  the prefix
+     * @param visitor receives every matching entry; returning false stops the visit
+     */
+    public void forEachWithPrefix(String prefix, Visitor visitor) {
+        Snapshot current = snapshot;
+        int i = current.lowerBound(prefix);
+        Iterator<Entry> pending = delta.tailSet(new Entry(prefix, Long.MIN_VALUE)).iterator();
+        Entry next = pending.hasNext() ? pending.next() : null;
+        while (true) {
+            boolean fromSnapshot = i < current.keys.length && current.keys[i].startsWith(prefix);
+            boolean fromDelta = next != null && next.key().startsWith(prefix);
+            if (!fromSnapshot && !fromDelta) {
+                return;
+            }
+            boolean keepGoing;
+            if (fromSnapshot && (!fromDelta || compare(current.keys[i], current.ids[i], next) <= 0)) {
+                keepGoing = visitor.visit(current.keys[i], current.ids[i]);
+                i++;
+            } else {
+                keepGoing = visitor.visit(next.key(), next.id());
+                next = pending.hasNext() ? pending.next() : null;
+            }
+            if (!keepGoing) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries in the snapshot
+     */
+    public int size() {
+        return snapshot.keys.length;
+    }
+
+    /**
+     * @return the number of entries added since the last compaction
+     */
+    public int pending() {
+        return deltaSize.get();
+    }
+
+    private static int compare(String key, long id, Entry entry) {
+        int cmp = key.compareTo(entry.key());
+        return cmp != 0 ? cmp : Long.compare(id, entry.id());
+    }
+
+    /**
+     * An entry of the index, ordered by key and then by id.
+     */
+    public record Entry(String key, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            return compare(key, id, other);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        boolean visit(String key, long id);
+    }
+
+    @FunctionalInterface
+    public interface LivePredicate {
+        boolean test(String key, long id);
+    }
+
+    private record Snapshot(String[] keys, long[] ids) {
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
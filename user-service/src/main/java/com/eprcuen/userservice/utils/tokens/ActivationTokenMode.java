@@ -0,0 +1,13 @@
+package com.eprcuen.userservice.utils.tokens;
+
+/**
+ * Storage modes of the account activation tokens.
+ * STATEFUL tokens are random values stored in the validation_tokens table;
+ * STATELESS tokens are HMAC-signed and verified in memory without touching the database.
+ *
+ * @author caito
+ */
+public enum ActivationTokenMode {
+    STATEFUL,
+    STATELESS
+}
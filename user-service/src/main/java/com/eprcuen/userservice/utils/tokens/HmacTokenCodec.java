@@ -0,0 +1,117 @@
+package com.eprcuen.userservice.utils.tokens;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Codec for compact, URL-safe, HMAC-signed activation tokens.
+ * A token is {@code base64url(expiry | nonce | email) "." base64url(hmac)}, where expiry is the epoch
+ * second as 8 bytes, nonce is 12 random bytes and hmac is HMAC-SHA256 of the payload truncated to 128 bits.
+ * Verification is a single HMAC computation and a constant-time comparison.
+ *
+ * @author caito
+ *
+ */
+public class HmacTokenCodec {
+    public static final int MIN_SECRET_BYTES = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int NONCE_BYTES = 12;
+    private static final int MAC_BYTES = 16;
+    private static final int HEADER_BYTES = Long.BYTES + NONCE_BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Token claims recovered from a verified token.
+     *
+     * @param email  the email the token was issued for
+     * @param expiry the instant the token expires
+     * @param nonce  the unique nonce of the token, used to revoke it
+     */
+    public record Claims(String email, Instant expiry, String nonce) {
+    }
+
+    /**
+     * @param secret the HMAC key, at least 32 bytes
+     */
+    public HmacTokenCodec(byte[] secret) {
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("The activation token secret must be at least "
+                    + MIN_SECRET_BYTES + " bytes long");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Signs a token for the given email.
+     *
+     * @param email  the email the token is issued for
+     * @param expiry the instant the token expires
+     * @return the encoded token
+     */
+    public String sign(String email, Instant expiry) {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ByteBuffer.allocate(HEADER_BYTES + emailBytes.length)
+                .putLong(expiry.getEpochSecond())
+                .put(nonce)
+                .put(emailBytes)
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(this.mac(payload));
+    }
+
+    /**
+     * Verifies the signature of a token and decodes its claims.
+     * Expiry and revocation are left to the caller.
+     *
+     * @param token the encoded token
+     * @return the claims, or empty if the token is malformed or its signature is invalid
+     */
+    public Optional<Claims> verify(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (payload.length <= HEADER_BYTES || !MessageDigest.isEqual(this.mac(payload), signature)) {
+            return Optional.empty();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Instant expiry = Instant.ofEpochSecond(buffer.getLong());
+        String nonce = ENCODER.encodeToString(Arrays.copyOfRange(payload, Long.BYTES, HEADER_BYTES));
+        String email = new String(payload, HEADER_BYTES, payload.length - HEADER_BYTES, StandardCharsets.UTF_8);
+        return Optional.of(new Claims(email, expiry, nonce));
+    }
+
+    private byte[] mac(byte[] payload) {
+        return Arrays.copyOf(macs.get().doFinal(payload), MAC_BYTES);
+    }
+}
@@ -0,0 +1,49 @@
+package com.eprcuen.userservice.utils.tokens;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked token nonces.
+ * Each nonce is kept only until its token would have expired anyway, so the set stays as small as
+ * the number of tokens used within one token lifetime. The set is local to the instance and lost on
+ * restart, so it only answers replays early; it is not what makes a token single use.
+ *
+ * @author caito
+ *
+ */
+public class RevocationSet {
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * Revokes a nonce.
+     *
+     * @param nonce  the nonce to revoke
+     * @param expiry the instant the token expires
+     * @return true if the nonce was not revoked before, so the caller is the one consuming the token
+     */
+    public boolean revoke(String nonce, Instant expiry) {
+        return revoked.putIfAbsent(nonce, expiry) == null;
+    }
+
+    /**
+     * @param nonce the nonce to check
+     * @return true if the nonce has been revoked
+     */
+    public boolean isRevoked(String nonce) {
+        return revoked.containsKey(nonce);
+    }
+
+    /**
+     * Removes the nonces whose tokens have expired.
+     *
+     * @param now the current instant
+     */
+    public void purgeExpired(Instant now) {
+        revoked.values().removeIf(expiry -> expiry.isBefore(now));
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
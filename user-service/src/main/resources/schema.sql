@@ -0,0 +1,75 @@
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(100) NOT NULL,
+    email VARCHAR(254) NOT NULL,
+    telephone VARCHAR(30),
+    password VARCHAR(100) NOT NULL,
+    account_non_expired BOOLEAN NOT NULL DEFAULT FALSE,
+    account_non_locked BOOLEAN NOT NULL DEFAULT FALSE,
+    credentials_non_expired BOOLEAN NOT NULL DEFAULT FALSE,
+    enabled BOOLEAN NOT NULL DEFAULT FALSE,
+    role VARCHAR(30) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_users_email (email)
+);
+
+CREATE TABLE IF NOT EXISTS validation_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token VARCHAR(64) NOT NULL,
+    email VARCHAR(254) NOT NULL,
+    expiry_date DATETIME NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_validation_tokens_token (token)
+);
+
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    topic VARCHAR(100) NOT NULL,
+    event_key VARCHAR(254),
+    event_type VARCHAR(200) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    claimed_until DATETIME(6),
+    PRIMARY KEY (id),
+    KEY idx_outbox_pending (sent_at, id),
+    KEY idx_outbox_key_pending (topic, event_key, sent_at, id)
+);
+
+-- Databases created before the unique keys were part of the CREATE TABLE statements above never get them,
+-- and MySQL has no CREATE INDEX IF NOT EXISTS, so each key is added by a statement prepared from
+-- information_schema. Adding a key fails while the table still holds duplicates; those must be cleaned up first.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics
+                     WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_email'),
+              'DO 0',
+              'CREATE UNIQUE INDEX uk_users_email ON users (email)');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics
+                     WHERE table_schema = DATABASE() AND table_name = 'validation_tokens'
+                       AND index_name = 'uk_validation_tokens_token'),
+              'DO 0',
+              'CREATE UNIQUE INDEX uk_validation_tokens_token ON validation_tokens (token)');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- The relay claims outbox rows with a lease before publishing them; older outbox tables lack the column.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.columns
+                     WHERE table_schema = DATABASE() AND table_name = 'outbox' AND column_name = 'claimed_until'),
+              'DO 0',
+              'ALTER TABLE outbox ADD COLUMN claimed_until DATETIME(6)');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- The relay only claims the oldest pending row of each key, which it finds through this index.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics
+                     WHERE table_schema = DATABASE() AND table_name = 'outbox' AND index_name = 'idx_outbox_key_pending'),
+              'DO 0',
+              'CREATE INDEX idx_outbox_key_pending ON outbox (topic, event_key, sent_at, id)');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
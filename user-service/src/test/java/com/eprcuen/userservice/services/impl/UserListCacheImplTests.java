@@ -0,0 +1,97 @@
+package com.eprcuen.userservice.services.impl;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.eprcuen.userservice.services.contracts.UserListCache.Encoded;
+import com.eprcuen.userservice.services.contracts.UserListCache.Listing;
+import com.eprcuen.userservice.utils.json.UserResponseEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserListCacheImplTests {
+    private final UserListCacheImpl cache = new UserListCacheImpl(new UserResponseEncoder(null),
+            new SimpleMeterRegistry(), 1024 * 1024, 100, Duration.ofMinutes(10));
+
+    @Test
+    void coalescesConcurrentMissesIntoOneLoad() {
+        Sinks.Many<UserResponse> rows = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Flux<UserResponse>> loader = () -> {
+            loads.incrementAndGet();
+            return rows.asFlux();
+        };
+        AtomicReference<Listing> owner = new AtomicReference<>();
+        AtomicReference<Listing> waiter = new AtomicReference<>();
+
+        cache.get(null, 10, loader).subscribe(owner::set);
+        cache.get(null, 10, loader).subscribe(waiter::set);
+        rows.tryEmitNext(user(1));
+        rows.tryEmitComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(owner.get()).isInstanceOf(Encoded.class);
+        assertThat(waiter.get()).isSameAs(owner.get());
+    }
+
+    @Test
+    void aCancelledWaiterDoesNotFailTheOthersNorTheCaching() {
+        Sinks.Many<UserResponse> rows = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Flux<UserResponse>> loader = () -> {
+            loads.incrementAndGet();
+            return rows.asFlux();
+        };
+        AtomicReference<Listing> owner = new AtomicReference<>();
+        AtomicReference<Listing> waiter = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        cache.get(null, 10, loader).subscribe(owner::set, error::set);
+        Disposable cancelled = cache.get(null, 10, loader).subscribe(listing -> { }, error::set);
+        cache.get(null, 10, loader).subscribe(waiter::set, error::set);
+        cancelled.dispose();
+        rows.tryEmitNext(user(1));
+        rows.tryEmitComplete();
+
+        assertThat(error.get()).isNull();
+        assertThat(owner.get()).isInstanceOf(Encoded.class);
+        assertThat(waiter.get()).isSameAs(owner.get());
+        AtomicReference<Listing> cached = new AtomicReference<>();
+        cache.get(null, 10, loader).subscribe(cached::set);
+        assertThat(cached.get()).isSameAs(owner.get());
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadsAgainAfterAChange() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Flux<UserResponse>> loader = () -> {
+            loads.incrementAndGet();
+            return Flux.just(user(1));
+        };
+
+        cache.get(null, 10, loader).block();
+        cache.get(null, 10, loader).block();
+        cache.changed();
+        cache.get(null, 10, loader).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static UserResponse user(int i) {
+        return UserResponse.builder()
+                .id((long) i)
+                .username("user" + i)
+                .email("user" + i + "@mail.example.com")
+                .role("USER")
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.eprcuen.userservice.utils.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GradientLimiterTests {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void rejectsRequestsOverTheLimit() {
+        GradientLimiter limiter = new GradientLimiter(3, 1, 100, 0.2, 1.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(3);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileBusyAndLatencyIsSteady() {
+        GradientLimiter limiter = new GradientLimiter(10, 1, 1_000, 0.2, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            busyRound(limiter, FAST);
+        }
+
+        assertThat(limiter.limit()).isGreaterThan(10);
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        GradientLimiter limiter = new GradientLimiter(10, 1, 1_000, 0.2, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(FAST, false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void neverGrowsPastTheMaximum() {
+        GradientLimiter limiter = new GradientLimiter(10, 1, 20, 0.2, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            busyRound(limiter, FAST);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void backsOffWhenLatencyRises() {
+        GradientLimiter limiter = new GradientLimiter(20, 1, 1_000, 0.2, 1.5);
+        for (int i = 0; i < 3; i++) {
+            busyRound(limiter, FAST);
+        }
+        int baseline = limiter.limit();
+
+        busyRound(limiter, SLOW);
+
+        assertThat(limiter.limit()).isLessThan(baseline);
+    }
+
+    @Test
+    void cutsTheLimitOnDroppedRequests() {
+        GradientLimiter limiter = new GradientLimiter(100, 1, 1_000, 0.2, 1.5);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+
+        assertThat(limiter.limit()).isEqualTo(90);
+    }
+
+    @Test
+    void neverBacksOffBelowTheMinimum() {
+        GradientLimiter limiter = new GradientLimiter(100, 5, 1_000, 0.2, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, true);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new GradientLimiter(10, 0, 100, 0.2, 1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GradientLimiter(10, 20, 10, 0.2, 1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Fills every slot of the limiter and then releases them all with the given latency.
+     */
+    private static void busyRound(GradientLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
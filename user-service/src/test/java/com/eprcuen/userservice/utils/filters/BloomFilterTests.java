@@ -0,0 +1,69 @@
+package com.eprcuen.userservice.utils.filters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BloomFilterTests {
+
+    @Test
+    void neverForgetsAnAddedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(email(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(email(i))).as(email(i)).isTrue();
+        }
+    }
+
+    @Test
+    void anEmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertThat(filter.mightContain(email(1))).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.expectedFpp()).isZero();
+    }
+
+    @Test
+    void sizesTheBitArrayFromTheExpectedCountAndRate() {
+        // m = -n ln(p) / ln(2)^2 bits, rounded up to whole 64-bit words
+        assertThat(new BloomFilter(1_000, 0.01).memoryBytes()).isEqualTo(1_200);
+        assertThat(new BloomFilter(1_000_000, 0.01).memoryBytes()).isEqualTo(1_198_136);
+        assertThat(new BloomFilter(1_000, 0.001).memoryBytes())
+                .isGreaterThan(new BloomFilter(1_000, 0.01).memoryBytes());
+    }
+
+    @Test
+    void sizesForOneElementWhenNoneAreExpected() {
+        assertThat(new BloomFilter(0, 0.01).memoryBytes()).isEqualTo(8);
+        assertThat(new BloomFilter(-5, 0.01).memoryBytes()).isEqualTo(8);
+    }
+
+    @Test
+    void measuredFalsePositiveRateIsNearTheTarget() {
+        for (double fpp : new double[] {0.01, 0.001}) {
+            BloomFilter filter = new BloomFilter(10_000, fpp);
+            for (int i = 0; i < 10_000; i++) {
+                filter.put(email(i));
+            }
+            int falsePositives = 0;
+            int lookups = 200_000;
+            for (int i = 0; i < lookups; i++) {
+                if (filter.mightContain("other" + i + "@example.org")) {
+                    falsePositives++;
+                }
+            }
+
+            assertThat((double) falsePositives / lookups).as("measured at %s", fpp).isCloseTo(fpp, within(fpp * 0.5));
+            assertThat(filter.expectedFpp()).as("expected at %s", fpp).isCloseTo(fpp, within(fpp * 0.2));
+        }
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -0,0 +1,105 @@
+package com.eprcuen.userservice.utils.idempotency;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTests {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    void replaysTheResultOfTheFirstRequest() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, TTL, 4);
+        AtomicInteger calls = new AtomicInteger();
+
+        Supplier<Mono<String>> action = () -> Mono.fromSupplier(() -> "result-" + calls.incrementAndGet());
+
+        IdempotencyStore.Claim<String> first = store.claim("key", "1", action);
+        IdempotencyStore.Claim<String> second = store.claim("key", "1", action);
+
+        assertThat(first.owner()).isTrue();
+        assertThat(second.owner()).isFalse();
+        assertThat(first.result().block()).isEqualTo("result-1");
+        assertThat(second.result().block()).isEqualTo("result-1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void runsTheOperationEvenIfNobodySubscribes() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, TTL, 4);
+        AtomicInteger calls = new AtomicInteger();
+
+        store.claim("key", "1", () -> Mono.fromSupplier(calls::incrementAndGet).map(String::valueOf));
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void forgetsFailedOperations() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, TTL, 4);
+        AtomicInteger calls = new AtomicInteger();
+
+        IdempotencyStore.Claim<String> failed = store.claim("key", "1", () -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("boom"));
+        });
+        IdempotencyStore.Claim<String> retried = store.claim("key", "1", () -> {
+            calls.incrementAndGet();
+            return Mono.just("ok");
+        });
+
+        assertThatThrownBy(() -> failed.result().block()).hasMessage("boom");
+        assertThat(retried.owner()).isTrue();
+        assertThat(retried.result().block()).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void rejectsAKeyReusedWithAnotherRequest() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, TTL, 4);
+        store.claim("key", "1", () -> Mono.just("first"));
+
+        assertThat(store.claim("key", "2", () -> Mono.just("second"))).isNull();
+    }
+
+    @Test
+    void startsAgainOnceTheEntryHasExpired() throws InterruptedException {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, Duration.ofNanos(1), 4);
+        store.claim("key", "1", () -> Mono.just("first"));
+        Thread.sleep(1);
+
+        IdempotencyStore.Claim<String> claim = store.claim("key", "2", () -> Mono.just("second"));
+
+        assertThat(claim.owner()).isTrue();
+        assertThat(claim.result().block()).isEqualTo("second");
+    }
+
+    @Test
+    void purgesExpiredEntries() throws InterruptedException {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, Duration.ofNanos(1), 4);
+        for (int i = 0; i < 10; i++) {
+            store.claim("key-" + i, String.valueOf(i), () -> Mono.just("result"));
+        }
+        Thread.sleep(1);
+
+        store.purgeExpired();
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void staysWithinTheMaximumSize() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(8, TTL, 4);
+        for (int i = 0; i < 1_000; i++) {
+            store.claim("key-" + i, String.valueOf(i), () -> Mono.just("result"));
+        }
+
+        assertThat(store.size()).isLessThanOrEqualTo(8);
+    }
+}
@@ -0,0 +1,38 @@
+package com.eprcuen.userservice.utils.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestFingerprintTests {
+
+    @Test
+    void isStableForTheSameFields() {
+        assertThat(RequestFingerprint.of("john", "john@example.com", null))
+                .isEqualTo(RequestFingerprint.of("john", "john@example.com", null));
+        assertThat(RequestFingerprint.of("john")).hasSize(64);
+    }
+
+    @Test
+    void distinguishesFieldBoundaries() {
+        assertThat(RequestFingerprint.of("ab", "c")).isNotEqualTo(RequestFingerprint.of("a", "bc"));
+        assertThat(RequestFingerprint.of("abc", "")).isNotEqualTo(RequestFingerprint.of("abc"));
+    }
+
+    @Test
+    void distinguishesNullFromEmpty() {
+        assertThat(RequestFingerprint.of("john", null)).isNotEqualTo(RequestFingerprint.of("john", ""));
+        assertThat(RequestFingerprint.of(null, "john")).isNotEqualTo(RequestFingerprint.of("john", null));
+    }
+
+    @Test
+    void distinguishesFieldOrder() {
+        assertThat(RequestFingerprint.of("john", "doe")).isNotEqualTo(RequestFingerprint.of("doe", "john"));
+    }
+
+    @Test
+    void distinguishesCollidingHashCodes() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        assertThat(RequestFingerprint.of("Aa")).isNotEqualTo(RequestFingerprint.of("BB"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.eprcuen.userservice.utils.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonBufferTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesStringsLikeJackson() throws Exception {
+        String[] values = {
+                "", "john.doe@mail.example.com", "quote \" and backslash \\", "slash / stays",
+                "tab\t newline\n return\r backspace\b formfeed\f", "delete \u007f",
+                "josé ñandú", "北京 \u0800\uFFFF", "emoji 😀 and 𝄞", "lone \uD83D high", "lone \uDE00 low", "end \uD83D"
+        };
+        for (String value : values) {
+            assertThat(this.bytes(value)).isEqualTo(objectMapper.writeValueAsBytes(value));
+        }
+    }
+
+    @Test
+    void escapesEveryControlCharacterLikeJackson() throws Exception {
+        for (char c = 0; c < 0x20; c++) {
+            String value = "a" + c + "b";
+
+            assertThat(this.bytes(value)).isEqualTo(objectMapper.writeValueAsBytes(value));
+        }
+    }
+
+    @Test
+    void writesLongsLikeJackson() throws Exception {
+        long[] values = {0, 1, -1, 9, 10, 99, 100, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        for (long value : values) {
+            JsonBuffer out = new JsonBuffer(16);
+            out.writeLong(value);
+
+            assertThat(new String(out.copy(0), StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void writesNulls() {
+        JsonBuffer out = new JsonBuffer(16);
+        out.writeString(null);
+        out.writeByte(',');
+        out.writeLong(null);
+
+        assertThat(new String(out.copy(0), StandardCharsets.UTF_8)).isEqualTo("null,null");
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() throws Exception {
+        String value = "é".repeat(10_000);
+        JsonBuffer out = new JsonBuffer(16);
+        out.writeString(value);
+
+        assertThat(out.copy(0)).isEqualTo(objectMapper.writeValueAsBytes(value));
+    }
+
+    @Test
+    void localBuffersAreEmptied() {
+        JsonBuffer first = JsonBuffer.local();
+        first.writeString("left over");
+
+        assertThat(JsonBuffer.local().size()).isZero();
+    }
+
+    private byte[] bytes(String value) {
+        JsonBuffer out = new JsonBuffer(16);
+        out.writeString(value);
+        return out.copy(0);
+    }
+}
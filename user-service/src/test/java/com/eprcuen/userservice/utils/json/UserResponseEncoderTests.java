@@ -0,0 +1,118 @@
+package com.eprcuen.userservice.utils.json;
+
+import com.eprcuen.userservice.api.models.responses.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserResponseEncoderTests {
+    private static final ResolvableType TYPE = ResolvableType.forClass(UserResponse.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserResponseEncoder encoder = new UserResponseEncoder(null);
+
+    @Test
+    void encodesAUserLikeJackson() throws Exception {
+        UserResponse user = user(1);
+
+        assertThat(this.join(encoder.encode(Mono.just(user), DefaultDataBufferFactory.sharedInstance, TYPE,
+                MediaType.APPLICATION_JSON, null))).isEqualTo(objectMapper.writeValueAsString(user));
+    }
+
+    @Test
+    void encodesNullsAndEscapedTextLikeJackson() throws Exception {
+        UserResponse user = UserResponse.builder()
+                .id(-7L)
+                .username("josé \"pepe\" \\ 北京 😀")
+                .email("tab\tnew\nline\u0001")
+                .build();
+
+        assertThat(encoder.encodeList(List.of(user))).isEqualTo(objectMapper.writeValueAsBytes(List.of(user)));
+    }
+
+    @Test
+    void encodesAFluxAsAJsonArrayLikeJackson() throws Exception {
+        for (int count : new int[]{0, 1, 63, 64, 65, 200}) {
+            List<UserResponse> users = users(count);
+
+            assertThat(this.join(encoder.encode(Flux.fromIterable(users), DefaultDataBufferFactory.sharedInstance,
+                    TYPE, MediaType.APPLICATION_JSON, null))).isEqualTo(objectMapper.writeValueAsString(users));
+        }
+    }
+
+    @Test
+    void encodesAListLikeJackson() throws Exception {
+        List<UserResponse> users = users(100);
+
+        assertThat(encoder.encodeList(users)).isEqualTo(objectMapper.writeValueAsBytes(users));
+        assertThat(encoder.encodeList(Collections.emptyList())).isEqualTo("[]".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodesNdjsonAsOneLinePerUser() throws Exception {
+        List<UserResponse> users = users(3);
+        StringBuilder expected = new StringBuilder();
+        for (UserResponse user : users) {
+            expected.append(objectMapper.writeValueAsString(user)).append('\n');
+        }
+
+        List<DataBuffer> buffers = encoder.encode(Flux.fromIterable(users), DefaultDataBufferFactory.sharedInstance,
+                TYPE, MediaType.APPLICATION_NDJSON, null).collectList().block();
+
+        assertThat(buffers).hasSize(3);
+        assertThat(this.join(Flux.fromIterable(buffers))).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void reusesCachedRowsUntilTheUserChangesOrIsEvicted() throws Exception {
+        Cache<Long, UserResponseEncoder.EncodedRow> rows = Caffeine.newBuilder().build();
+        UserResponseEncoder cached = new UserResponseEncoder(rows);
+        UserResponse user = user(1);
+
+        cached.encodeList(List.of(user));
+        byte[] first = rows.getIfPresent(1L).json();
+        cached.encodeList(List.of(user));
+        assertThat(rows.getIfPresent(1L).json()).isSameAs(first);
+
+        UserResponse renamed = user(1);
+        renamed.setUsername("renamed");
+        assertThat(cached.encodeList(List.of(renamed))).isEqualTo(objectMapper.writeValueAsBytes(List.of(renamed)));
+        assertThat(rows.getIfPresent(1L).user()).isEqualTo(renamed);
+
+        cached.evict(1L);
+        assertThat(rows.getIfPresent(1L)).isNull();
+    }
+
+    private String join(Flux<DataBuffer> buffers) {
+        DataBuffer joined = DataBufferUtils.join(buffers).block();
+        return joined.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<UserResponse> users(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(UserResponseEncoderTests::user).toList();
+    }
+
+    private static UserResponse user(int i) {
+        return UserResponse.builder()
+                .id((long) i)
+                .username("user" + i)
+                .email("user" + i + "@mail.example.com")
+                .telephone(i % 2 == 0 ? null : "+54 9 11 5555-" + i)
+                .role("USER")
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.eprcuen.userservice.utils.pool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveAllocationStrategyTests {
+
+    @Test
+    void clampsTheInitialLimitToTheBounds() {
+        assertThat(new AdaptiveAllocationStrategy(5, 50, 20, 2, 1).limit()).isEqualTo(20);
+        assertThat(new AdaptiveAllocationStrategy(5, 50, 2, 2, 1).limit()).isEqualTo(5);
+        assertThat(new AdaptiveAllocationStrategy(5, 50, 80, 2, 1).limit()).isEqualTo(50);
+    }
+
+    @Test
+    void growsOneStepWhileAcquiresArePendingUpToTheMaximum() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(5, 10, 6, 2, 1);
+
+        assertThat(strategy.adjust(3, 0)).isEqualTo(8);
+        assertThat(strategy.adjust(1, 0)).isEqualTo(10);
+        assertThat(strategy.adjust(7, 0)).isEqualTo(10);
+        assertThat(strategy.permitMaximum()).isEqualTo(10);
+    }
+
+    @Test
+    void waitsForThePendingThresholdBeforeGrowing() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(5, 50, 10, 2, 3);
+
+        assertThat(strategy.adjust(2, 0)).isEqualTo(10);
+        assertThat(strategy.adjust(3, 0)).isEqualTo(12);
+    }
+
+    @Test
+    void shrinksOneStepWhileConnectionsSitIdleDownToTheMinimum() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(5, 50, 9, 2, 1);
+
+        assertThat(strategy.adjust(0, 4)).isEqualTo(7);
+        assertThat(strategy.adjust(0, 4)).isEqualTo(5);
+        assertThat(strategy.adjust(0, 4)).isEqualTo(5);
+        assertThat(strategy.permitMinimum()).isEqualTo(5);
+    }
+
+    @Test
+    void holdsWhenThereIsNeitherPressureNorEnoughIdleConnections() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(5, 50, 10, 2, 3);
+
+        assertThat(strategy.adjust(0, 2)).isEqualTo(10);
+        assertThat(strategy.adjust(1, 8)).isEqualTo(10);
+    }
+
+    @Test
+    void neverShrinksBelowOneConnection() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(0, 10, 3, 2, 1);
+
+        assertThat(strategy.adjust(0, 5)).isEqualTo(1);
+        assertThat(strategy.adjust(0, 5)).isEqualTo(1);
+    }
+
+    @Test
+    void grantsPermitsUpToTheLimit() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(1, 10, 4, 2, 1);
+
+        assertThat(strategy.getPermits(3)).isEqualTo(3);
+        assertThat(strategy.estimatePermitCount()).isEqualTo(1);
+        assertThat(strategy.getPermits(3)).isEqualTo(1);
+        assertThat(strategy.getPermits(1)).isZero();
+        assertThat(strategy.getPermits(0)).isZero();
+        assertThat(strategy.permitGranted()).isEqualTo(4);
+
+        strategy.returnPermits(2);
+
+        assertThat(strategy.permitGranted()).isEqualTo(2);
+        assertThat(strategy.getPermits(5)).isEqualTo(2);
+    }
+
+    @Test
+    void grantsTheNewPermitsOnceTheLimitGrows() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(1, 10, 4, 2, 1);
+        strategy.getPermits(4);
+
+        strategy.adjust(1, 0);
+
+        assertThat(strategy.estimatePermitCount()).isEqualTo(2);
+        assertThat(strategy.getPermits(5)).isEqualTo(2);
+    }
+
+    @Test
+    void keepsGrantedPermitsButGrantsNoneAboveAShrunkLimit() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(1, 10, 6, 2, 1);
+        strategy.getPermits(6);
+
+        strategy.adjust(0, 3);
+
+        assertThat(strategy.limit()).isEqualTo(4);
+        assertThat(strategy.permitGranted()).isEqualTo(6);
+        assertThat(strategy.estimatePermitCount()).isZero();
+        strategy.returnPermits(2);
+        assertThat(strategy.getPermits(1)).isZero();
+        strategy.returnPermits(1);
+        assertThat(strategy.getPermits(2)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new AdaptiveAllocationStrategy(-1, 10, 5, 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveAllocationStrategy(10, 5, 5, 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveAllocationStrategy(0, 0, 0, 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveAllocationStrategy(1, 10, 5, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
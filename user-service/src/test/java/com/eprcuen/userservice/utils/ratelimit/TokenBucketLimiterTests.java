@@ -0,0 +1,86 @@
+package com.eprcuen.userservice.utils.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketLimiterTests {
+    private static final int CAPACITY = 5;
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long START = TimeUnit.SECONDS.toNanos(1_000);
+
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(CAPACITY, 10, 100, Duration.ofMinutes(1));
+
+    @Test
+    void allowsABurstOfCapacityRequests() {
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(limiter.tryAcquire("client", START)).isZero();
+        }
+        assertThat(limiter.tryAcquire("client", START)).isPositive();
+    }
+
+    @Test
+    void returnsTheTimeUntilTheNextToken() {
+        this.drain("client", START);
+
+        assertThat(limiter.tryAcquire("client", START)).isEqualTo(INTERVAL);
+        assertThat(limiter.tryAcquire("client", START + INTERVAL / 4)).isEqualTo(INTERVAL - INTERVAL / 4);
+    }
+
+    @Test
+    void grantsATokenOnceTheReturnedWaitHasElapsed() {
+        this.drain("client", START);
+        long wait = limiter.tryAcquire("client", START);
+
+        assertThat(limiter.tryAcquire("client", START + wait - 1)).isEqualTo(1);
+        assertThat(limiter.tryAcquire("client", START + wait)).isZero();
+        assertThat(limiter.tryAcquire("client", START + wait)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        this.drain("client", START);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("client", START);
+        }
+
+        assertThat(limiter.tryAcquire("client", START + INTERVAL)).isZero();
+    }
+
+    @Test
+    void refillsTheWholeBurstAfterIdling() {
+        this.drain("client", START);
+        long later = START + CAPACITY * INTERVAL;
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(limiter.tryAcquire("client", later)).isZero();
+        }
+        assertThat(limiter.tryAcquire("client", later)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void keepsABucketPerClient() {
+        this.drain("client", START);
+
+        assertThat(limiter.tryAcquire("client", START)).isPositive();
+        assertThat(limiter.tryAcquire("other", START)).isZero();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new TokenBucketLimiter(0, 10, 100, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketLimiter(5, 0, 100, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void drain(String client, long now) {
+        for (int i = 0; i < CAPACITY; i++) {
+            limiter.tryAcquire(client, now);
+        }
+    }
+}
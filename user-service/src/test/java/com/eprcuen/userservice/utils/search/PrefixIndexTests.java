@@ -0,0 +1,134 @@
+package com.eprcuen.userservice.utils.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTests {
+
+    @Test
+    void mergesTheSnapshotAndTheDeltaInKeyOrder() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries(new PrefixIndex.Entry("bob", 2), new PrefixIndex.Entry("alice", 1),
+                new PrefixIndex.Entry("carol", 3)));
+        index.add("bobby", 5);
+        index.add("al", 4);
+
+        assertThat(find(index, "")).containsExactly("al#4", "alice#1", "bob#2", "bobby#5", "carol#3");
+    }
+
+    @Test
+    void visitsOnlyTheKeysWithThePrefix() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries(new PrefixIndex.Entry("bob", 2), new PrefixIndex.Entry("alice", 1),
+                new PrefixIndex.Entry("carol", 3)));
+        index.add("bobby", 5);
+        index.add("boa", 6);
+
+        assertThat(find(index, "bo")).containsExactly("boa#6", "bob#2", "bobby#5");
+        assertThat(find(index, "bob")).containsExactly("bob#2", "bobby#5");
+        assertThat(find(index, "bz")).isEmpty();
+        assertThat(find(index, "zz")).isEmpty();
+    }
+
+    @Test
+    void ordersTheIdsOfARepeatedKey() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries(new PrefixIndex.Entry("same", 3), new PrefixIndex.Entry("same", 1)));
+        index.add("same", 2);
+
+        assertThat(find(index, "same")).containsExactly("same#1", "same#2", "same#3");
+    }
+
+    @Test
+    void stopsWhenTheVisitorSaysSo() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries(new PrefixIndex.Entry("a1", 1), new PrefixIndex.Entry("a3", 3)));
+        index.add("a2", 2);
+        List<String> visited = new ArrayList<>();
+
+        index.forEachWithPrefix("a", (key, id) -> {
+            visited.add(key);
+            return visited.size() < 2;
+        });
+
+        assertThat(visited).containsExactly("a1", "a2");
+    }
+
+    @Test
+    void loadDropsDuplicatesAndKeepsTheDelta() {
+        PrefixIndex index = new PrefixIndex();
+        index.add("new", 9);
+
+        index.load(entries(new PrefixIndex.Entry("a", 1), new PrefixIndex.Entry("a", 1),
+                new PrefixIndex.Entry("b", 2)));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.pending()).isEqualTo(1);
+        assertThat(find(index, "")).containsExactly("a#1", "b#2", "new#9");
+    }
+
+    @Test
+    void countsARepeatedAddOnce() {
+        PrefixIndex index = new PrefixIndex();
+
+        index.add("a", 1);
+        index.add("a", 1);
+
+        assertThat(index.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionFoldsTheDeltaIntoTheSnapshot() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries(new PrefixIndex.Entry("bob", 2), new PrefixIndex.Entry("alice", 1)));
+        index.add("carol", 3);
+        index.add("al", 4);
+        index.add("bob", 2);
+
+        index.compact((key, id) -> true);
+
+        assertThat(index.pending()).isZero();
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(find(index, "")).containsExactly("al#4", "alice#1", "bob#2", "carol#3");
+    }
+
+    @Test
+    void compactionDropsTheEntriesThatAreNoLongerLive() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries(new PrefixIndex.Entry("old@mail.example.com", 1), new PrefixIndex.Entry("other", 2)));
+        index.add("new@mail.example.com", 1);
+
+        index.compact((key, id) -> id != 1 || key.startsWith("new"));
+
+        assertThat(find(index, "")).containsExactly("new@mail.example.com#1", "other#2");
+    }
+
+    @Test
+    void keepsEntriesAddedDuringACompactionForTheNextOne() {
+        PrefixIndex index = new PrefixIndex();
+        index.add("a", 1);
+
+        index.compact((key, id) -> {
+            index.add("b", 2);
+            return true;
+        });
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.pending()).isEqualTo(1);
+        assertThat(find(index, "")).containsExactly("a#1", "b#2");
+    }
+
+    private static List<PrefixIndex.Entry> entries(PrefixIndex.Entry... entries) {
+        return new ArrayList<>(List.of(entries));
+    }
+
+    private static List<String> find(PrefixIndex index, String prefix) {
+        List<String> found = new ArrayList<>();
+        index.forEachWithPrefix(prefix, (key, id) -> found.add(key + "#" + id));
+        return found;
+    }
+}
@@ -0,0 +1,132 @@
+package com.eprcuen.userservice.utils.tokens;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HmacTokenCodecTests {
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private final HmacTokenCodec codec = new HmacTokenCodec(SECRET);
+
+    @Test
+    void roundTripsTheClaims() {
+        Instant expiry = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+
+        HmacTokenCodec.Claims claims = codec.verify(codec.sign("john.doe@example.com", expiry)).orElseThrow();
+
+        assertThat(claims.email()).isEqualTo("john.doe@example.com");
+        assertThat(claims.expiry()).isEqualTo(expiry);
+        assertThat(claims.nonce()).isNotNull();
+    }
+
+    @Test
+    void roundTripsNonAsciiEmails() {
+        String token = codec.sign("jöhn@exämple.com", Instant.now());
+
+        assertThat(codec.verify(token).orElseThrow().email()).isEqualTo("jöhn@exämple.com");
+    }
+
+    @Test
+    void issuesADifferentNonceForEachToken() {
+        Instant expiry = Instant.now();
+        String first = codec.sign("john.doe@example.com", expiry);
+        String second = codec.sign("john.doe@example.com", expiry);
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(codec.verify(first).orElseThrow().nonce())
+                .isNotEqualTo(codec.verify(second).orElseThrow().nonce());
+    }
+
+    @Test
+    void reportsTheExpiryWithoutRejectingExpiredTokens() {
+        Instant expired = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+
+        HmacTokenCodec.Claims claims = codec.verify(codec.sign("john.doe@example.com", expired)).orElseThrow();
+
+        assertThat(claims.expiry()).isEqualTo(expired);
+        assertThat(claims.expiry().isBefore(Instant.now())).isTrue();
+    }
+
+    @Test
+    void rejectsATamperedPayload() {
+        String token = codec.sign("john.doe@example.com", Instant.now());
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+        payload[payload.length - 1] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(dot);
+
+        assertThat(codec.verify(tampered).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsAnExtendedExpiry() {
+        String token = codec.sign("john.doe@example.com", Instant.now());
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+        payload[0] = 0x7f;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(dot);
+
+        assertThat(codec.verify(tampered).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsATamperedSignature() {
+        String token = codec.sign("john.doe@example.com", Instant.now());
+        int dot = token.indexOf('.');
+        byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        signature[0] ^= 1;
+        String tampered = token.substring(0, dot + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+
+        assertThat(codec.verify(tampered).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherSecret() {
+        byte[] other = Arrays.copyOf(SECRET, SECRET.length);
+        other[0] ^= 1;
+        String token = new HmacTokenCodec(other).sign("john.doe@example.com", Instant.now());
+
+        assertThat(codec.verify(token).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsTruncatedTokens() {
+        String token = codec.sign("john.doe@example.com", Instant.now());
+        int dot = token.indexOf('.');
+
+        assertThat(codec.verify(token.substring(0, token.length() - 2)).isPresent()).isFalse();
+        assertThat(codec.verify(token.substring(0, dot + 1)).isPresent()).isFalse();
+        assertThat(codec.verify(token.substring(0, dot)).isPresent()).isFalse();
+        assertThat(codec.verify(token.substring(1)).isPresent()).isFalse();
+        assertThat(codec.verify(token.substring(dot)).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsPayloadsWithoutAnEmail() {
+        byte[] header = new byte[Long.BYTES + 12];
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(header);
+
+        assertThat(codec.verify(encoded + "." + encoded).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThat(codec.verify(null).isPresent()).isFalse();
+        assertThat(codec.verify("").isPresent()).isFalse();
+        assertThat(codec.verify("no-dot").isPresent()).isFalse();
+        assertThat(codec.verify("not*base64.not*base64").isPresent()).isFalse();
+    }
+
+    @Test
+    void requiresAMinimumSecretLength() {
+        assertThatThrownBy(() -> new HmacTokenCodec(new byte[HmacTokenCodec.MIN_SECRET_BYTES - 1]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}